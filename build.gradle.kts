@@ -35,6 +35,7 @@ dependencies {
     implementation("org.liquibase:liquibase-core:5.0.1")
     implementation("org.springframework.boot:spring-boot-starter-webflux")
     implementation("org.springframework.boot:spring-boot-starter-json")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     testImplementation("io.projectreactor:reactor-test")
     testImplementation("org.testcontainers:testcontainers-junit-jupiter")
     testImplementation("org.springframework.boot:spring-boot-testcontainers")
@@ -0,0 +1,42 @@
+package com.resonance.components;
+
+import com.resonance.service.DiscoveryFeedPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the discovery feed pool, exposed over JMX only.
+ * <p>
+ * {@code status} returns the pool size and per-keyword state; {@code updateKeywords}
+ * replaces the discovery keywords without a restart. Since the keywords are sent to
+ * iTunes as search terms, the endpoint is kept out of the web exposure, where
+ * {@code /actuator/**} is public.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "feedpool")
+public class FeedPoolActuatorEndpoint {
+
+    private final DiscoveryFeedPool feedPool;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("size", feedPool.snapshot().size());
+        status.put("keywords", feedPool.status());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> updateKeywords(List<String> keywords) {
+        feedPool.updateKeywords(keywords);
+        return status();
+    }
+}
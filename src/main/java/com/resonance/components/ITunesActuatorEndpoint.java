@@ -0,0 +1,36 @@
+package com.resonance.components;
+
+import com.resonance.external.itunes.ITunesCircuitBreakers;
+import com.resonance.external.itunes.ITunesOperation;
+import com.resonance.external.itunes.ITunesRequestGovernor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing the state of the iTunes integration at {@code /actuator/itunes}.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "itunes")
+public class ITunesActuatorEndpoint {
+
+    private final ITunesCircuitBreakers circuitBreakers;
+    private final ITunesRequestGovernor governor;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Map<ITunesOperation, ITunesCircuitBreakers.Snapshot> circuits = circuitBreakers.snapshot();
+        status.put("circuits", circuits);
+        status.put("governor", Map.of(
+                "availableTokens", governor.availableTokens(),
+                "queued", governor.queueDepths()
+        ));
+        return status;
+    }
+}
@@ -0,0 +1,54 @@
+package com.resonance.components;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.resonance.entities.enums.MediaType;
+import com.resonance.service.SearchResultCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the search result cache, exposed over JMX only.
+ * <p>
+ * {@code status} returns statistics and the most recent entries; {@code evict} evicts
+ * entries for a query and/or media type, or everything when neither is given. Since
+ * the entries list what users searched for and eviction forces upstream calls, the
+ * endpoint is kept out of the web exposure, where {@code /actuator/**} is public.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "searchcache")
+public class SearchCacheActuatorEndpoint {
+
+    private static final int MAX_LISTED_ENTRIES = 100;
+
+    private final SearchResultCache searchCache;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        CacheStats stats = searchCache.stats();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("size", searchCache.size());
+        status.put("hitRate", stats.hitRate());
+        status.put("hits", stats.hitCount());
+        status.put("misses", stats.missCount());
+        status.put("evictions", stats.evictionCount());
+        status.put("entries", searchCache.entries(MAX_LISTED_ENTRIES));
+        return status;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> evict(@OptionalParameter String query, @OptionalParameter MediaType type) {
+        String normalized = query != null ? SearchResultCache.Key.normalize(query) : null;
+        int evicted = searchCache.evict(key ->
+                (normalized == null || normalized.equals(key.query()))
+                        && (type == null || type == key.type()));
+        return Map.of("evicted", evicted);
+    }
+}
@@ -0,0 +1,82 @@
+package com.resonance.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures how long each pooled connection is held, from checkout to close, through
+ * Hikari's own usage callback, on top of the regular pool metrics of the delegate.
+ * <p>
+ * Hikari reports the usage on the thread that closes the connection, before it goes
+ * back to the pool, so JDBC calls themselves are not intercepted. Holds above the
+ * warning threshold are counted and logged with that thread, which points at code
+ * that keeps a connection across slow work such as an upstream HTTP call.
+ */
+@Slf4j
+final class ConnectionHoldTimeTrackerFactory implements MetricsTrackerFactory {
+
+    private final Supplier<MetricsTrackerFactory> delegate;
+    private final Supplier<Timer> holdTimer;
+    private final Supplier<Counter> slowHolds;
+    private final long warnThresholdMillis;
+
+    ConnectionHoldTimeTrackerFactory(
+            Supplier<MetricsTrackerFactory> delegate,
+            Supplier<Timer> holdTimer,
+            Supplier<Counter> slowHolds,
+            Duration warnThreshold
+    ) {
+        this.delegate = delegate;
+        this.holdTimer = holdTimer;
+        this.slowHolds = slowHolds;
+        this.warnThresholdMillis = warnThreshold.toMillis();
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        IMetricsTracker tracker = delegate.get().create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                tracker.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                tracker.close();
+            }
+        };
+    }
+
+    private void record(long heldMillis) {
+        holdTimer.get().record(heldMillis, TimeUnit.MILLISECONDS);
+        if (heldMillis >= warnThresholdMillis) {
+            slowHolds.get().increment();
+            log.warn("Database connection held for {} ms by {}", heldMillis, Thread.currentThread().getName());
+        }
+    }
+}
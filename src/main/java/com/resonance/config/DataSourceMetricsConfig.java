@@ -0,0 +1,57 @@
+package com.resonance.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.time.Duration;
+
+/**
+ * Installs a metrics tracker on the Hikari pool to export connection hold times as
+ * {@code db.connection.hold}, so code that keeps a pooled connection across slow
+ * work shows up before the pool drains.
+ * <p>
+ * The tracker wraps Hikari's Micrometer tracker, which Spring Boot would otherwise
+ * install, so the {@code hikaricp.*} pool metrics are still exported.
+ */
+@Configuration
+public class DataSourceMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor connectionHoldTimeRecorder(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${db.connection.hold.warn-threshold:1s}") Duration warnThreshold
+    ) {
+        SingletonSupplier<MetricsTrackerFactory> poolMetrics = SingletonSupplier.of(
+                () -> new MicrometerMetricsTrackerFactory(meterRegistry.getObject()));
+        SingletonSupplier<Timer> holdTimer = SingletonSupplier.of(() -> Timer.builder("db.connection.hold")
+                .description("Time a pooled database connection is held between checkout and close")
+                .publishPercentileHistogram()
+                .register(meterRegistry.getObject()));
+        SingletonSupplier<Counter> slowHolds = SingletonSupplier.of(() -> Counter.builder("db.connection.hold.slow")
+                .description("Connection holds longer than the warning threshold")
+                .register(meterRegistry.getObject()));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    hikari.setMetricsTrackerFactory(
+                            new ConnectionHoldTimeTrackerFactory(poolMetrics, holdTimer, slowHolds, warnThreshold));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.resonance.config;
+
+import com.resonance.external.itunes.ITunesRecordingInterceptor;
+import com.resonance.external.itunes.ITunesReplayInterceptor;
+import com.resonance.external.itunes.ITunesResponseDecoder;
+import com.resonance.external.itunes.ITunesTransportInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * HTTP transport for the iTunes Search API.
+ * <p>
+ * Uses the JDK HttpClient (HTTP/2 negotiated via ALPN, falling back to HTTP/1.1)
+ * with explicit connect and read timeouts, and bounds concurrent exchanges through
+ * {@link ITunesTransportInterceptor} so a slow upstream cannot tie up request threads
+ * indefinitely. The read timeout only covers the wait for response headers; the
+ * interceptor also aborts any exchange whose body is still being read at the total
+ * deadline ({@code itunes.http.total-timeout}).
+ * <p>
+ * {@code itunes.mode} selects where responses come from: {@code live} calls the API,
+ * {@code record} calls it and archives every successful response, and {@code replay}
+ * serves archived responses with synthetic latency and errors, without any network access.
+ * <p>
+ * {@code itunes.client.mode} selects the client: {@code blocking} (the default) serves
+ * every call through the RestClient, and {@code reactive} also creates a non-blocking
+ * {@link WebClient} on Reactor Netty, with the same pool size and timeouts, backing
+ * {@code ReactiveITunesClient}. Neither the WebClient nor its connection pool exists in
+ * blocking mode. Replay applies to it as well; recording is done through the blocking client.
+ */
+@Configuration
+public class ITunesHttpConfig {
+
+    @Bean
+    public RestClient iTunesRestClient(
+            @Value("${itunes.base-url}") String baseUrl,
+            @Value("${itunes.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${itunes.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${itunes.mode:live}") String mode,
+            @Value("${itunes.archive.path:itunes-archive.bin}") Path archivePath,
+            ITunesTransportInterceptor transportInterceptor,
+            ObjectProvider<ITunesReplayInterceptor> replayInterceptor,
+            ITunesResponseDecoder decoder
+    ) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .requestInterceptor(transportInterceptor);
+
+        switch (mode.toLowerCase(Locale.ROOT)) {
+            case "live" -> {
+            }
+            case "record" -> builder.requestInterceptor(new ITunesRecordingInterceptor(archivePath, decoder));
+            case "replay" -> builder.requestInterceptor(replayInterceptor.getObject());
+            default -> throw new IllegalStateException("Unknown itunes.mode: " + mode);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ITunesTransportInterceptor iTunesTransportInterceptor(
+            @Value("${itunes.http.max-connections:20}") int maxConnections,
+            @Value("${itunes.http.acquire-timeout:1s}") Duration acquireTimeout,
+            @Value("${itunes.http.total-timeout:10s}") Duration totalTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        return new ITunesTransportInterceptor(maxConnections, acquireTimeout, totalTimeout, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "itunes.client.mode", havingValue = "reactive")
+    public WebClient iTunesWebClient(
+            @Value("${itunes.base-url}") String baseUrl,
+            @Value("${itunes.http.max-connections:20}") int maxConnections,
+            @Value("${itunes.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${itunes.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${itunes.http.acquire-timeout:1s}") Duration acquireTimeout,
+            @Value("${itunes.http.max-response-size:2MB}") DataSize maxResponseSize,
+            ObjectProvider<ITunesReplayInterceptor> replayInterceptor
+    ) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("itunes")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(acquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+
+        reactor.netty.http.client.HttpClient httpClient = reactor.netty.http.client.HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .followRedirect(true);
+
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) maxResponseSize.toBytes()));
+        replayInterceptor.ifAvailable(replay -> builder.filter(replay.asExchangeFilter()));
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "itunes.mode", havingValue = "replay")
+    public ITunesReplayInterceptor iTunesReplayInterceptor(
+            @Value("${itunes.archive.path:itunes-archive.bin}") Path archivePath,
+            @Value("${itunes.replay.median-latency:150ms}") Duration medianLatency,
+            @Value("${itunes.replay.latency-sigma:0.5}") double latencySigma,
+            @Value("${itunes.replay.error-rate:0.0}") double errorRate,
+            @Value("${itunes.replay.seed:42}") long seed,
+            ITunesResponseDecoder decoder,
+            MeterRegistry meterRegistry
+    ) {
+        return new ITunesReplayInterceptor(archivePath, medianLatency, latencySigma, errorRate, seed, decoder, meterRegistry);
+    }
+}
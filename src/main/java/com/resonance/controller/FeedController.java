@@ -4,16 +4,20 @@ import com.resonance.controller.doc.FeedControllerDoc;
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.dto.media.SearchResponse;
 import com.resonance.service.FeedService;
+import com.resonance.service.JwtService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.WebUtils;
+import reactor.core.publisher.Flux;
 
 /**
  * REST controller for the public discovery feed.
@@ -24,6 +28,7 @@ import org.springframework.web.util.WebUtils;
  * TikTok-style audio playback.
  * <p>
  * Authenticated users get unlimited pagination; guests are limited to 5 tracks.
+ * Users with a valid token are not served tracks they have seen recently.
  */
 @RestController
 @RequiredArgsConstructor
@@ -34,6 +39,7 @@ public class FeedController implements FeedControllerDoc {
     private static final int AUTH_MAX_SIZE = 50; // API rate limit safeguard
 
     private final FeedService feedService;
+    private final JwtService jwtService;
 
     @Value("${spring.security.jwt.cookie-name}")
     private String cookieName;
@@ -44,23 +50,58 @@ public class FeedController implements FeedControllerDoc {
      * Authenticated users (with valid AUTH_TOKEN cookie) can request up to 50 items.
      * Guests are limited to 5 items per request. Each track includes a previewUrl
      * for 30-second audio playback.
+     * <p>
+     * Passing back the returned {@code cursor} continues the same shuffled session
+     * without repeating tracks.
      */
     @Override
     @GetMapping
     public ResponseEntity<SearchResponse<MediaResponse>> getDiscoveryFeed(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String genre,
             HttpServletRequest request
     ) {
         boolean authenticated = isAuthenticated(request);
-        int effectiveSize = authenticated
-                ? Math.min(size, AUTH_MAX_SIZE)
-                : Math.min(size, GUEST_MAX_SIZE);
+        int effectiveSize = Math.clamp(size, 1, authenticated ? AUTH_MAX_SIZE : GUEST_MAX_SIZE);
+
+        String viewer = authenticated ? viewer(request) : null;
 
-        SearchResponse<MediaResponse> feed = feedService.getDiscoveryFeed(page, effectiveSize);
+        SearchResponse<MediaResponse> feed = feedService.getDiscoveryFeed(page, effectiveSize, cursor, genre, viewer);
         return ResponseEntity.ok(feed);
     }
 
+    /**
+     * Streams the discovery feed as NDJSON or server-sent events over one connection,
+     * fetching further pages as the client reads. Guests receive at most 5 tracks.
+     */
+    @Override
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<MediaResponse> streamDiscoveryFeed(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String genre,
+            HttpServletRequest request
+    ) {
+        if (!isAuthenticated(request)) {
+            return feedService.streamDiscoveryFeed(GUEST_MAX_SIZE, genre, null).take(GUEST_MAX_SIZE);
+        }
+        return feedService.streamDiscoveryFeed(Math.clamp(size, 1, AUTH_MAX_SIZE), genre, viewer(request));
+    }
+
+    /**
+     * The public feed bypasses the JWT filter, so the token is checked here. An invalid
+     * or expired token still gets the authenticated page size, but no seen-track filter.
+     */
+    private String viewer(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, cookieName);
+        try {
+            return jwtService.extractUsername(cookie.getValue());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private boolean isAuthenticated(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, cookieName);
         return cookie != null && cookie.getValue() != null && !cookie.getValue().isBlank();
@@ -1,6 +1,7 @@
 package com.resonance.controller;
 
 import com.resonance.controller.doc.MediaControllerDoc;
+import com.resonance.dto.media.MediaLookupResult;
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.service.MediaService;
 import lombok.RequiredArgsConstructor;
@@ -8,7 +9,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,11 +24,15 @@ public class MediaController implements MediaControllerDoc {
 
     @Override
     @GetMapping("/{id}")
-    public ResponseEntity<MediaResponse> getMediaById(@PathVariable String id) {
-        MediaResponse response = mediaService.getMediaById(id);
-        if (response == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<MediaResponse>> getMediaById(@PathVariable String id) {
+        return mediaService.getMediaByIdReactive(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Override
+    @GetMapping(params = "ids")
+    public Mono<List<MediaLookupResult>> getMediaByIds(@RequestParam List<String> ids) {
+        return mediaService.getMediaByIdsReactive(ids);
     }
 }
@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Validated
 @RestController
@@ -25,14 +27,31 @@ public class SearchController implements SearchControllerDoc {
 
 
     @GetMapping
-    public ResponseEntity<SearchResponse<MediaResponse>> search(
+    public Mono<ResponseEntity<SearchResponse<MediaResponse>>> search(
             @RequestParam
             @Size(min = 3, message = "recherche avec au moins 3 caractères") String q,
             @RequestParam(defaultValue = "10")
             @Min(value = 1, message = "la limite doit être au moins 1") int limit,
             @RequestParam(required = false, defaultValue = "TRACK") MediaType type) {
-        SearchResponse<MediaResponse> response = searchService.searchAll(q, limit, type);
-        return ResponseEntity.ok(response);
+        return searchService.searchAllReactive(q, limit, type).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams search results as NDJSON or server-sent events, each result written as
+     * soon as it is decoded from the iTunes response.
+     */
+    @Override
+    @GetMapping(value = "/stream", produces = {
+            org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE,
+            org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE
+    })
+    public Flux<MediaResponse> streamSearch(
+            @RequestParam
+            @Size(min = 3, message = "recherche avec au moins 3 caractères") String q,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "la limite doit être au moins 1") int limit,
+            @RequestParam(required = false, defaultValue = "TRACK") MediaType type) {
+        return searchService.streamAll(q, limit, type);
     }
 
     /**
@@ -43,10 +62,9 @@ public class SearchController implements SearchControllerDoc {
      */
     @Override
     @GetMapping("/albums")
-    public ResponseEntity<SearchResponse<MediaResponse>> searchAlbums(
+    public Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchAlbums(
             @RequestParam String q) {
-        SearchResponse<MediaResponse> response = searchService.searchAlbums(q);
-        return ResponseEntity.ok(response);
+        return searchService.searchAlbumsReactive(q).map(ResponseEntity::ok);
     }
 
     /**
@@ -57,10 +75,9 @@ public class SearchController implements SearchControllerDoc {
      */
     @Override
     @GetMapping("/artists")
-    public ResponseEntity<SearchResponse<MediaResponse>> searchArtists(
+    public Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchArtists(
             @RequestParam String q) {
-        SearchResponse<MediaResponse> response = searchService.searchArtists(q);
-        return ResponseEntity.ok(response);
+        return searchService.searchArtistsReactive(q).map(ResponseEntity::ok);
     }
 
     /**
@@ -71,9 +88,8 @@ public class SearchController implements SearchControllerDoc {
      */
     @Override
     @GetMapping("/tracks")
-    public ResponseEntity<SearchResponse<MediaResponse>> searchTracks(
+    public Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchTracks(
             @RequestParam String q) {
-        SearchResponse<MediaResponse> response = searchService.searchTracks(q);
-        return ResponseEntity.ok(response);
+        return searchService.searchTracksReactive(q).map(ResponseEntity::ok);
     }
 }
@@ -11,6 +11,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
 
 /**
  * OpenAPI documentation interface for the Feed Controller.
@@ -23,7 +24,10 @@ public interface FeedControllerDoc {
             description = "Returns a paginated list of tracks with 30-second audio previews for the homepage discovery feed. " +
                     "Each track includes a previewUrl for TikTok-style audio playback. " +
                     "Authenticated users (with AUTH_TOKEN cookie) can request up to 50 items. " +
-                    "Guests are limited to 5 items per request."
+                    "Guests are limited to 5 items per request. " +
+                    "Pass the returned cursor to get the next page of the same shuffled session without repeats; " +
+                    "no cursor is returned once the session is exhausted. " +
+                    "Sessions expire after a period of inactivity; an expired cursor is rejected and a new session must be started."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -33,11 +37,36 @@ public interface FeedControllerDoc {
                             mediaType = "application/json",
                             schema = @Schema(implementation = SearchResponse.class)
                     )
-            )
+            ),
+            @ApiResponse(responseCode = "400", description = "Malformed or expired cursor", content = @Content)
     })
     ResponseEntity<SearchResponse<MediaResponse>> getDiscoveryFeed(
             @Parameter(description = "Page number (0-indexed)", example = "0") int page,
             @Parameter(description = "Page size (max 5 for guests, max 50 for authenticated)", example = "10") int size,
+            @Parameter(description = "Cursor from the previous page; starts a new session when absent") String cursor,
+            @Parameter(description = "Restrict the feed to a genre (case-insensitive); repeat it with the cursor", example = "Pop") String genre,
+            HttpServletRequest request
+    );
+
+    @Operation(
+            summary = "Stream discovery feed",
+            description = "Streams one shuffled feed session as newline-delimited JSON or server-sent events, " +
+                    "depending on the Accept header. Further tracks are fetched as the client reads, " +
+                    "and the stream ends when the session is exhausted. Guests receive at most 5 tracks."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Feed stream",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = MediaResponse.class)),
+                            @Content(mediaType = "text/event-stream", schema = @Schema(implementation = MediaResponse.class))
+                    }
+            )
+    })
+    Flux<MediaResponse> streamDiscoveryFeed(
+            @Parameter(description = "Tracks fetched per batch (max 50)", example = "10") int size,
+            @Parameter(description = "Restrict the feed to a genre (case-insensitive)", example = "Pop") String genre,
             HttpServletRequest request
     );
 }
@@ -1,8 +1,10 @@
 package com.resonance.controller.doc;
 
+import com.resonance.dto.media.MediaLookupResult;
 import com.resonance.dto.media.MediaResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,6 +12,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * OpenAPI documentation interface for the Media Controller.
@@ -44,7 +49,7 @@ public interface MediaControllerDoc {
                     content = @Content
             )
     })
-    ResponseEntity<MediaResponse> getMediaById(
+    Mono<ResponseEntity<MediaResponse>> getMediaById(
             @Parameter(
                     description = "iTunes ID (collectionId, trackId, or artistId)",
                     required = true,
@@ -52,4 +57,40 @@ public interface MediaControllerDoc {
             )
             String id
     );
+
+    @Operation(
+            summary = "Get many media by ID",
+            description = "Resolves up to 100 media IDs in one call, e.g. for a grid of tiles. " +
+                    "IDs are looked up in one batched database read; only those not cached locally " +
+                    "are fetched from iTunes, in batched multi-ID lookups. Returns one result per " +
+                    "requested ID, in request order, with found=false for IDs that did not resolve."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lookup results in request order",
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = MediaLookupResult.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No IDs or more than 100 IDs given",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Not authenticated",
+                    content = @Content
+            )
+    })
+    Mono<List<MediaLookupResult>> getMediaByIds(
+            @Parameter(
+                    description = "Comma-separated iTunes IDs (collectionId, trackId, or artistId), at most 100",
+                    required = true,
+                    example = "1440857781,1440857786"
+            )
+            List<String> ids
+    );
 }
@@ -2,6 +2,7 @@ package com.resonance.controller.doc;
 
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.dto.media.SearchResponse;
+import com.resonance.entities.enums.MediaType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,8 +11,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * OpenAPI documentation interface for the Search Controller.
@@ -39,7 +43,7 @@ public interface SearchControllerDoc {
                     content = @Content
             )
     })
-    ResponseEntity<SearchResponse<MediaResponse>> searchAlbums(
+    Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchAlbums(
             @Parameter(description = "Search query", required = true, example = "The Beatles")
             @Size(min = 3, message = "recherche avec au moins 3 caractères")
             String q
@@ -64,7 +68,7 @@ public interface SearchControllerDoc {
                     content = @Content
             )
     })
-    ResponseEntity<SearchResponse<MediaResponse>> searchArtists(
+    Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchArtists(
             @Parameter(description = "Search query", required = true, example = "Taylor Swift")
             @Size(min = 3, message = "recherche avec au moins 3 caractères")
             String q
@@ -89,9 +93,40 @@ public interface SearchControllerDoc {
                     content = @Content
             )
     })
-    ResponseEntity<SearchResponse<MediaResponse>> searchTracks(
+    Mono<ResponseEntity<SearchResponse<MediaResponse>>> searchTracks(
             @Parameter(description = "Search query", required = true, example = "Bohemian Rhapsody")
             @Size(min = 3, message = "recherche avec au moins 3 caractères")
             String q
     );
+
+    @Operation(
+            summary = "Stream search results",
+            description = "Search the iTunes catalog and receive each result as soon as it is decoded, " +
+                    "as newline-delimited JSON or server-sent events depending on the Accept header"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Results stream",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = MediaResponse.class)),
+                            @Content(mediaType = "text/event-stream", schema = @Schema(implementation = MediaResponse.class))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Not authenticated",
+                    content = @Content
+            )
+    })
+    Flux<MediaResponse> streamSearch(
+            @Parameter(description = "Search query", required = true, example = "Bohemian Rhapsody")
+            @Size(min = 3, message = "recherche avec au moins 3 caractères")
+            String q,
+            @Parameter(description = "Maximum number of results", example = "10")
+            @Min(value = 1, message = "la limite doit être au moins 1")
+            int limit,
+            @Parameter(description = "Media type to search", example = "TRACK")
+            MediaType type
+    );
 }
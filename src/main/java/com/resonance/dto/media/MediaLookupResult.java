@@ -0,0 +1,22 @@
+package com.resonance.dto.media;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of resolving one ID of a bulk media lookup.
+ *
+ * @param id    the requested ID
+ * @param found whether the ID resolved to media
+ * @param media the media, or null if not found
+ */
+public record MediaLookupResult(
+    String id,
+    boolean found,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    MediaResponse media
+) {
+
+    public static MediaLookupResult of(String id, MediaResponse media) {
+        return new MediaLookupResult(id, media != null, media);
+    }
+}
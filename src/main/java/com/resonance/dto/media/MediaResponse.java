@@ -3,7 +3,7 @@ package com.resonance.dto.media;
 import com.resonance.entities.enums.MediaType;
 import lombok.Builder;
 
-@Builder
+@Builder(toBuilder = true)
 public record MediaResponse(
     String id,
     String title,
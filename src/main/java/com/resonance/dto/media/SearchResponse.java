@@ -1,5 +1,6 @@
 package com.resonance.dto.media;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 import java.util.List;
@@ -10,5 +11,7 @@ public record SearchResponse<T>(
     int page,
     int size,
     long totalElements,
-    int totalPages
+    int totalPages,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String cursor
 ) {}
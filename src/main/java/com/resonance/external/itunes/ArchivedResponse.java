@@ -0,0 +1,52 @@
+package com.resonance.external.itunes;
+
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * In-memory HTTP response used when recording or replaying iTunes traffic.
+ */
+final class ArchivedResponse implements ClientHttpResponse {
+
+    private final HttpStatusCode status;
+    private final byte[] body;
+    private final HttpHeaders headers = new HttpHeaders();
+
+    ArchivedResponse(int status, byte[] body) {
+        this.status = HttpStatusCode.valueOf(status);
+        this.body = body;
+        this.headers.setContentType(MediaType.APPLICATION_JSON);
+        this.headers.setContentLength(body.length);
+    }
+
+    @Override
+    public @NonNull HttpStatusCode getStatusCode() {
+        return status;
+    }
+
+    @Override
+    public @NonNull String getStatusText() {
+        return String.valueOf(status.value());
+    }
+
+    @Override
+    public @NonNull HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public @NonNull InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,187 @@
+package com.resonance.external.itunes;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * While CLOSED, outcomes are kept in a sliding window; once the window holds at
+ * least {@code minimumCalls} outcomes and the failure rate reaches the threshold,
+ * the circuit OPENs and rejects calls. After {@code openDuration} it moves to
+ * HALF_OPEN and lets a limited number of probe calls through: if they all succeed
+ * the circuit closes again, the first failure re-opens it.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final BiConsumer<State, State> onTransition;
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    CircuitBreaker(
+            double failureRateThreshold,
+            int slidingWindowSize,
+            int minimumCalls,
+            Duration openDuration,
+            int halfOpenProbes,
+            BiConsumer<State, State> onTransition
+    ) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Permission to make one call, bound to the state generation it was granted in.
+     * Its outcome is reported once; outcomes of calls granted before the last state
+     * change are ignored, so a slow call that started while CLOSED cannot count as a
+     * probe, and a probe outliving its HALF_OPEN period cannot touch the next one.
+     */
+    public final class Permit {
+
+        private final long generation;
+        private boolean reported;
+
+        private Permit(long generation) {
+            this.generation = generation;
+        }
+
+        public void onSuccess() {
+            synchronized (CircuitBreaker.this) {
+                if (settle()) {
+                    recordSuccess();
+                }
+            }
+        }
+
+        public void onFailure() {
+            synchronized (CircuitBreaker.this) {
+                if (settle()) {
+                    recordFailure();
+                }
+            }
+        }
+
+        private boolean settle() {
+            if (reported) {
+                return false;
+            }
+            reported = true;
+            return generation == CircuitBreaker.this.generation;
+        }
+    }
+
+    /**
+     * Asks for permission to make a call. Every granted permit must be followed by
+     * exactly one {@link Permit#onSuccess()} or {@link Permit#onFailure()}.
+     *
+     * @return the permit, or null if the call must not proceed
+     */
+    public synchronized Permit tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return null;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                return null;
+            }
+            probesInFlight++;
+        }
+        return new Permit(generation);
+    }
+
+    private void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            probeSuccesses++;
+            if (probeSuccesses >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        recordOutcome(false);
+    }
+
+    private void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        recordOutcome(true);
+        if (windowCount >= minimumCalls && failureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return windowCount == 0 ? 0.0 : (double) windowFailures / windowCount;
+    }
+
+    public synchronized int bufferedCalls() {
+        return windowCount;
+    }
+
+    private void recordOutcome(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        generation++;
+        switch (target) {
+            case OPEN -> openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            case CLOSED -> {
+                windowNext = 0;
+                windowCount = 0;
+                windowFailures = 0;
+            }
+        }
+        onTransition.accept(previous, target);
+    }
+}
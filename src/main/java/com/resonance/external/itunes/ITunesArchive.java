@@ -0,0 +1,164 @@
+package com.resonance.external.itunes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact on-disk archive of iTunes responses, keyed by request.
+ * <p>
+ * The file is a sequence of gzip members, one per recorded response, each holding
+ * the request key, the HTTP status and the raw body. Appending a member never
+ * rewrites earlier ones, and {@link GZIPInputStream} reads concatenated members
+ * back as a single stream. When a key is recorded twice, the latest entry wins.
+ * <p>
+ * Lookups are stored per ID (see {@link #lookupKeyOf}): which IDs share one
+ * {@code /lookup} request depends on batching timing and on what is already cached,
+ * so a multi-ID key would rarely be requested again verbatim.
+ */
+@Slf4j
+final class ITunesArchive {
+
+    /**
+     * A recorded response.
+     */
+    record Entry(int status, byte[] body) {
+    }
+
+    private final Path path;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    ITunesArchive(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Builds the archive key of a request: method, path and query parameters in sorted order.
+     */
+    static String keyOf(HttpRequest request) {
+        return keyOf(request.getMethod(), request.getURI());
+    }
+
+    static String keyOf(HttpMethod method, URI uri) {
+        String query = uri.getRawQuery();
+        String sortedQuery = "";
+        if (query != null && !query.isEmpty()) {
+            String[] params = query.split("&");
+            Arrays.sort(params);
+            sortedQuery = "?" + String.join("&", params);
+        }
+        return method.name() + " " + uri.getRawPath() + sortedQuery;
+    }
+
+    /**
+     * Returns the IDs requested by a lookup, in request order.
+     *
+     * @return the IDs, or an empty list if the request is not an ID lookup
+     */
+    static List<String> lookupIds(HttpMethod method, URI uri) {
+        String query = uri.getRawQuery();
+        if (!HttpMethod.GET.equals(method)
+                || !ITunesOperation.LOOKUP.getPath().equals(uri.getRawPath())
+                || query == null
+                || !query.startsWith("id=")
+                || query.contains("&")) {
+            return List.of();
+        }
+        return Arrays.stream(URLDecoder.decode(query.substring(3), StandardCharsets.UTF_8).split(","))
+                .map(String::strip)
+                .filter(id -> !id.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Builds the archive key of a single-ID lookup, whatever request the ID was sent in.
+     */
+    static String lookupKeyOf(String id) {
+        return HttpMethod.GET.name() + " " + ITunesOperation.LOOKUP.getPath() + "?id=" + id;
+    }
+
+    /**
+     * Loads every entry of the archive file into memory.
+     *
+     * @return this archive
+     */
+    synchronized ITunesArchive load() {
+        if (!Files.exists(path)) {
+            log.warn("iTunes archive {} does not exist, replaying with no recorded responses", path);
+            return this;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path))))) {
+            while (true) {
+                String key;
+                try {
+                    key = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                int status = in.readInt();
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                entries.put(key, new Entry(status, body));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read iTunes archive " + path, e);
+        }
+        log.info("Loaded {} recorded iTunes response(s) from {}", entries.size(), path);
+        return this;
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Appends a response to the archive file.
+     */
+    synchronized void append(String key, int status, byte[] body) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(file)))) {
+            out.writeUTF(key);
+            out.writeInt(status);
+            out.writeInt(body.length);
+            out.write(body);
+        }
+        entries.put(key, new Entry(status, body));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    static byte[] readAll(InputStream body) throws IOException {
+        try (body) {
+            return body.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-endpoint circuit breakers and adaptive timeouts for the iTunes API.
+ * <p>
+ * Each {@link ITunesOperation} has its own breaker, so a failing lookup endpoint
+ * does not block searches. Call timeouts follow observed latency: a configured
+ * percentile of recent calls times a multiplier, clamped between a floor and a
+ * ceiling (the ceiling being the transport read timeout).
+ */
+@Slf4j
+@Component
+public final class ITunesCircuitBreakers {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final Map<ITunesOperation, CircuitBreaker> breakers = new EnumMap<>(ITunesOperation.class);
+    private final Map<ITunesOperation, LatencyTracker> latencies = new EnumMap<>(ITunesOperation.class);
+    private final double timeoutPercentile;
+    private final double timeoutMultiplier;
+    private final Duration minTimeout;
+    private final Duration maxTimeout;
+
+    public ITunesCircuitBreakers(
+            @Value("${itunes.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${itunes.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${itunes.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${itunes.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${itunes.circuit-breaker.half-open-probes:3}") int halfOpenProbes,
+            @Value("${itunes.adaptive-timeout.percentile:0.99}") double timeoutPercentile,
+            @Value("${itunes.adaptive-timeout.multiplier:2.0}") double timeoutMultiplier,
+            @Value("${itunes.adaptive-timeout.min:500ms}") Duration minTimeout,
+            @Value("${itunes.http.read-timeout:5s}") Duration maxTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.timeoutPercentile = timeoutPercentile;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+
+        for (ITunesOperation operation : ITunesOperation.values()) {
+            String tag = operation.name().toLowerCase(Locale.ROOT);
+            CircuitBreaker breaker = new CircuitBreaker(
+                    failureRateThreshold,
+                    slidingWindowSize,
+                    minimumCalls,
+                    openDuration,
+                    halfOpenProbes,
+                    (from, to) -> {
+                        log.warn("iTunes {} circuit transitioned {} -> {}", tag, from, to);
+                        Counter.builder("itunes.circuit.transitions")
+                                .description("iTunes circuit breaker state transitions")
+                                .tag("endpoint", tag)
+                                .tag("from", from.name())
+                                .tag("to", to.name())
+                                .register(meterRegistry)
+                                .increment();
+                    }
+            );
+            breakers.put(operation, breaker);
+            latencies.put(operation, new LatencyTracker(LATENCY_SAMPLES));
+
+            Gauge.builder("itunes.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("iTunes circuit breaker state (0=closed, 1=half-open, 2=open)")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            TimeGauge.builder("itunes.timeout.adaptive", operation, TimeUnit.MILLISECONDS,
+                            op -> timeoutFor(op).toMillis())
+                    .description("Current adaptive timeout for iTunes calls")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    public CircuitBreaker breaker(ITunesOperation operation) {
+        return breakers.get(operation);
+    }
+
+    /**
+     * Whether calls to the endpoint are currently let through (closed or probing).
+     */
+    public boolean isAvailable(ITunesOperation operation) {
+        return breakers.get(operation).state() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Records the latency of a completed or timed-out call.
+     */
+    public void recordLatency(ITunesOperation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+    }
+
+    /**
+     * Returns the given percentile of recent latency for the endpoint.
+     *
+     * @return the latency, or {@code null} before any call was recorded
+     */
+    public Duration latencyPercentile(ITunesOperation operation, double percentile) {
+        return latencies.get(operation).percentile(percentile);
+    }
+
+    /**
+     * Computes the timeout to apply to the next call of the endpoint.
+     */
+    public Duration timeoutFor(ITunesOperation operation) {
+        Duration observed = latencies.get(operation).percentile(timeoutPercentile);
+        if (observed == null) {
+            return maxTimeout;
+        }
+        Duration scaled = Duration.ofNanos((long) (observed.toNanos() * timeoutMultiplier));
+        if (scaled.compareTo(minTimeout) < 0) {
+            return minTimeout;
+        }
+        return scaled.compareTo(maxTimeout) > 0 ? maxTimeout : scaled;
+    }
+
+    /**
+     * Point-in-time view of one endpoint's breaker, for the actuator endpoint.
+     */
+    public record Snapshot(
+            String state,
+            double failureRate,
+            int bufferedCalls,
+            long timeoutMs,
+            Long p50Ms,
+            Long p99Ms
+    ) {
+    }
+
+    public Map<ITunesOperation, Snapshot> snapshot() {
+        Map<ITunesOperation, Snapshot> snapshot = new EnumMap<>(ITunesOperation.class);
+        breakers.forEach((operation, breaker) -> {
+            Duration p50 = latencyPercentile(operation, 0.5);
+            Duration p99 = latencyPercentile(operation, 0.99);
+            snapshot.put(operation, new Snapshot(
+                    breaker.state().name(),
+                    breaker.failureRate(),
+                    breaker.bufferedCalls(),
+                    timeoutFor(operation).toMillis(),
+                    p50 != null ? p50.toMillis() : null,
+                    p99 != null ? p99.toMillis() : null
+            ));
+        });
+        return snapshot;
+    }
+}
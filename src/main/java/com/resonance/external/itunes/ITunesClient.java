@@ -1,15 +1,70 @@
 package com.resonance.external.itunes;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 /**
  * Client for the Apple iTunes Search API.
- * Uses Spring RestClient for HTTP requests.
+ * Uses Spring RestClient for HTTP requests, over the pooled transport
+ * configured in {@code ITunesHttpConfig}.
+ * <p>
+ * Concurrent identical searches are coalesced: callers asking for the same
+ * normalized (term, entity, limit) at the same priority while a request is pending
+ * share its response instead of issuing their own upstream call. Priorities are not
+ * mixed, so a caller never inherits the result of a lower class's shed call.
+ * Single-ID lookups are micro-batched into multi-ID {@code /lookup} requests
+ * (see {@link LookupBatcher}).
+ * <p>
+ * Every upstream call goes through the endpoint's circuit breaker and is bounded
+ * by an adaptive timeout (see {@link ITunesCircuitBreakers}). Calls run on virtual
+ * threads, so a caller stops waiting when the timeout fires even if the socket is
+ * still open. While a circuit is open, calls return an empty response immediately.
+ * Before going upstream, each call takes a token from the {@link ITunesRequestGovernor}
+ * according to its {@link ITunesPriority}; shed calls also return an empty response.
+ * Slow lookups can optionally be hedged within a strict budget (see {@link RequestHedger}).
+ * <p>
+ * {@link #streamSearch} decodes the response body as it arrives on a virtual thread and
+ * emits each result through a {@link Flux}, so streaming works without the reactive client.
+ * <p>
+ * Search payloads and per-ID lookup answers are kept in the two-tier
+ * {@link ITunesResponseCache} (in-process, then shared through Postgres), which is
+ * checked before any quota token is taken.
  *
  * @see <a href="https://performance-partners.apple.com/search-api">iTunes Search API Documentation</a>
  */
@@ -22,18 +77,78 @@ public final class ITunesClient {
     private static final String ENTITY_ALBUM = "album";
     private static final String ENTITY_SONG = "musicTrack";
     private static final String ENTITY_MUSIC_ARTIST = "musicArtist";
+    private static final int MAX_LOOKUP_IDS = 200;
+
+    /**
+     * Coalescing key: a search is only shared between callers of the same priority class.
+     */
+    private record SearchFlight(ITunesSearchKey key, ITunesPriority priority) {
+    }
 
     private final RestClient restClient;
-    private final ObjectMapper objectMapper;
+    private final ITunesResponseDecoder decoder;
+    private final SingleFlight<SearchFlight, ITunesResponse> searchFlights = new SingleFlight<>();
+    private final ConcurrentMap<SearchFlight, Flux<ITunesResult>> streamFlights = new ConcurrentHashMap<>();
+    private final Counter searchIssued;
+    private final Counter searchCoalesced;
+    private final LookupBatcher lookupBatcher;
+    private final ITunesCircuitBreakers circuitBreakers;
+    private final ITunesRequestGovernor governor;
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Scheduler streamScheduler = Schedulers.fromExecutorService(callExecutor, "itunes-stream");
+    private final RequestHedger hedger;
+    private final ITunesResponseCache responseCache;
+    private final Duration searchTtl;
+    private final Duration lookupTtl;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
 
     public ITunesClient(
-            @Value("${itunes.base-url}") String baseUrl,
-            ObjectMapper objectMapper
+            @Qualifier("iTunesRestClient") RestClient restClient,
+            @Value("${itunes.lookup.batch-window:10ms}") Duration lookupBatchWindow,
+            @Value("${itunes.lookup.max-batch-size:50}") int lookupMaxBatchSize,
+            @Value("${itunes.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${itunes.hedging.percentile:0.95}") double hedgePercentile,
+            @Value("${itunes.hedging.min-delay:50ms}") Duration hedgeMinDelay,
+            @Value("${itunes.hedging.budget-ratio:0.05}") double hedgeBudgetRatio,
+            @Value("${itunes.hedging.max-budget:5}") double hedgeMaxBudget,
+            ITunesResponseDecoder decoder,
+            ITunesCircuitBreakers circuitBreakers,
+            ITunesRequestGovernor governor,
+            ITunesResponseCache responseCache,
+            @Value("${itunes.response-cache.search-ttl:1h}") Duration searchTtl,
+            @Value("${itunes.response-cache.lookup-ttl:24h}") Duration lookupTtl,
+            MeterRegistry meterRegistry
     ) {
-        this.objectMapper = objectMapper;
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .build();
+        this.decoder = decoder;
+        this.responseCache = responseCache;
+        this.searchTtl = searchTtl;
+        this.lookupTtl = lookupTtl;
+        this.circuitBreakers = circuitBreakers;
+        this.governor = governor;
+        this.restClient = restClient;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedger = new RequestHedger(callExecutor, governor, hedgeBudgetRatio, hedgeMaxBudget, meterRegistry);
+        this.searchIssued = Counter.builder("itunes.search.requests")
+                .description("iTunes searches by outcome: issued upstream or coalesced onto a pending call")
+                .tag("outcome", "issued")
+                .register(meterRegistry);
+        this.searchCoalesced = Counter.builder("itunes.search.requests")
+                .description("iTunes searches by outcome: issued upstream or coalesced onto a pending call")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("itunes.search.in-flight", searchFlights, SingleFlight::size)
+                .description("Distinct iTunes searches currently awaiting an upstream response")
+                .register(meterRegistry);
+        this.lookupBatcher = new LookupBatcher(
+                ids -> lookupUpstream(ids, ITunesPriority.INTERACTIVE),
+                lookupBatchWindow,
+                Math.min(lookupMaxBatchSize, MAX_LOOKUP_IDS),
+                meterRegistry
+        );
     }
 
     /**
@@ -78,10 +193,80 @@ public final class ITunesClient {
         return search(query, ENTITY_SONG, limit);
     }
 
+    /**
+     * Search for songs/tracks with a custom limit on behalf of a given priority class.
+     *
+     * @param query    the search term
+     * @param limit    maximum number of results (1-200)
+     * @param priority the quota priority of the caller
+     * @return ITunesResponse containing track results, or empty response on error or when shed
+     */
+    public ITunesResponse searchTracks(String query, int limit, ITunesPriority priority) {
+        return search(query, ENTITY_SONG, limit, priority);
+    }
+
     public ITunesResponse searchAll(String query, String entity, int limit){
         return search(query, entity, limit);
     }
 
+    /**
+     * Search for any entity on behalf of a given priority class.
+     *
+     * @param query    the search term
+     * @param entity   the iTunes entity to search for
+     * @param limit    maximum number of results (1-200)
+     * @param priority the quota priority of the caller
+     * @return ITunesResponse containing the results, or empty response on error or when shed
+     */
+    public ITunesResponse searchAll(String query, String entity, int limit, ITunesPriority priority) {
+        return search(query, entity, limit, priority);
+    }
+
+    /**
+     * Search and emit each result as soon as it is decoded from the response body,
+     * instead of waiting for the whole payload.
+     * <p>
+     * A cached payload is replayed from the response cache. Otherwise the stream joins a
+     * pending identical search or stream, or starts its own exchange on a virtual thread;
+     * results of a completed exchange are cached like a regular search. The adaptive
+     * timeout bounds the wait for the first result and between results, and cancelling
+     * the stream interrupts the exchange.
+     *
+     * @param query  the search term
+     * @param entity the iTunes entity to search for
+     * @param limit  maximum number of results
+     * @return the results in response order; empty on error, timeout, open circuit or when shed
+     */
+    public Flux<ITunesResult> streamSearch(String query, String entity, int limit) {
+        ITunesSearchKey key = ITunesSearchKey.of(query, entity, limit);
+        SearchFlight flight = new SearchFlight(key, ITunesPriority.INTERACTIVE);
+        return Flux.defer(() -> {
+            ITunesResponse cached = cachedResponse(key.fingerprint());
+            if (cached != null) {
+                log.debug("Streamed iTunes search for '{}' answered from the response cache", key.term());
+                return Flux.fromIterable(cached.results());
+            }
+
+            CompletableFuture<ITunesResponse> pending = searchFlights.pending(flight);
+            if (pending != null) {
+                searchCoalesced.increment();
+                return Mono.fromFuture(pending, true)
+                        .flatMapIterable(response -> response.results() != null ? response.results() : List.of());
+            }
+
+            boolean[] leader = {false};
+            Flux<ITunesResult> shared = streamFlights.computeIfAbsent(flight, k -> {
+                leader[0] = true;
+                return fetchStream(k.key())
+                        .doFinally(_ -> streamFlights.remove(k))
+                        .replay()
+                        .refCount();
+            });
+            (leader[0] ? searchIssued : searchCoalesced).increment();
+            return shared;
+        }).subscribeOn(streamScheduler);
+    }
+
     /**
      * Search for artists in the iTunes Store.
      *
@@ -105,69 +290,410 @@ public final class ITunesClient {
 
     /**
      * Lookup content by iTunes ID.
+     * <p>
+     * The ID is queued with other concurrent lookups and resolved through a
+     * single multi-ID request.
      *
      * @param itunesId the iTunes ID to lookup
-     * @return ITunesResponse containing the result, or empty response on error
+     * @return ITunesResponse containing the result, an empty response if iTunes has no match,
+     * or {@link ITunesResponse#unavailable()} on error
      */
     public ITunesResponse lookupById(Long itunesId) {
+        log.debug("Looking up iTunes content by ID: {}", itunesId);
+        ITunesResponse cached = cachedResponse(lookupFingerprint(itunesId));
+        if (cached != null) {
+            return cached;
+        }
         try {
-            log.debug("Looking up iTunes content by ID: {}", itunesId);
-            ITunesResponse response = restClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/lookup")
-                            .queryParam("id", itunesId)
-                            .build())
-                    .exchange((_, res) -> {
-                        if (res.getStatusCode().is2xxSuccessful()) {
-                            return objectMapper.readValue(res.getBody(), ITunesResponse.class);
-                        }
-                        return ITunesResponse.empty();
-                    });
-
-            if (response == null) {
-                log.warn("Received null response from iTunes lookup API for ID: {}", itunesId);
+            ITunesResult result = lookupBatcher.submit(itunesId).join();
+            if (result == null) {
+                log.debug("iTunes lookup returned no result for ID: {}", itunesId);
                 return ITunesResponse.empty();
             }
+            return new ITunesResponse(1, List.of(result));
+        } catch (CompletionException e) {
+            log.error("Error during iTunes lookup for ID {}: {}", itunesId, e.getMessage());
+            return ITunesResponse.unavailable();
+        }
+    }
 
-            log.debug("iTunes lookup returned {} result(s) for ID: {}", response.resultCount(), itunesId);
-            return response;
+    /**
+     * Lookup several items by iTunes ID in as few requests as possible.
+     * <p>
+     * IDs are sent comma-separated, at most 200 per request. Results come back in
+     * iTunes order; IDs with no match are simply absent.
+     *
+     * @param itunesIds the iTunes IDs to lookup
+     * @return ITunesResponse containing every result found, or {@link ITunesResponse#unavailable()}
+     * if any request failed
+     */
+    public ITunesResponse lookupByIds(Collection<Long> itunesIds) {
+        return lookupByIds(itunesIds, ITunesPriority.INTERACTIVE);
+    }
 
-        } catch (RestClientException e) {
-            log.error("Error during iTunes lookup for ID {}: {}", itunesId, e.getMessage());
+    /**
+     * Lookup several items by iTunes ID on behalf of a given priority class.
+     *
+     * @param itunesIds the iTunes IDs to lookup
+     * @param priority  the quota priority of the caller
+     * @return ITunesResponse containing every result found, or {@link ITunesResponse#unavailable()}
+     * if any request failed or was shed
+     */
+    public ITunesResponse lookupByIds(Collection<Long> itunesIds, ITunesPriority priority) {
+        if (itunesIds == null || itunesIds.isEmpty()) {
             return ITunesResponse.empty();
         }
+
+        List<ITunesResult> results = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : itunesIds) {
+            ITunesResponse cached = cachedResponse(lookupFingerprint(id));
+            if (cached != null) {
+                results.addAll(cached.results());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return new ITunesResponse(results.size(), results);
+        }
+
+        ITunesResponse fetched = lookupUpstream(missing, priority);
+        if (fetched.isUnavailable()) {
+            return fetched;
+        }
+        results.addAll(fetched.results());
+        return new ITunesResponse(results.size(), results);
+    }
+
+    /**
+     * Looks IDs up upstream, at most 200 per request, and caches each ID's answer
+     * (including "no result") in the response cache.
+     * <p>
+     * If any request fails or is shed, the whole lookup is unavailable: otherwise the IDs
+     * of that request would be indistinguishable from IDs iTunes does not know. The
+     * remaining requests are not sent, and the answered ones stay cached for a retry.
+     */
+    private ITunesResponse lookupUpstream(List<Long> itunesIds, ITunesPriority priority) {
+        List<Long> ids = List.copyOf(itunesIds);
+        List<ITunesResult> results = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_LOOKUP_IDS) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_LOOKUP_IDS, ids.size()));
+            ITunesResponse response = fetchLookup(chunk, priority);
+            if (response.isUnavailable()) {
+                return ITunesResponse.unavailable();
+            }
+            cacheLookupResults(chunk, response);
+            if (response.results() != null) {
+                results.addAll(response.results());
+            }
+        }
+        return new ITunesResponse(results.size(), results);
+    }
+
+    private void cacheLookupResults(List<Long> ids, ITunesResponse response) {
+        Map<Long, ITunesResult> byId = new HashMap<>();
+        if (response.results() != null) {
+            for (ITunesResult result : response.results()) {
+                Long primaryId = result.primaryId();
+                if (primaryId != null) {
+                    byId.putIfAbsent(primaryId, result);
+                }
+            }
+        }
+        for (Long id : ids) {
+            ITunesResult result = byId.get(id);
+            try {
+                byte[] payload = decoder.encode(result != null
+                        ? new ITunesResponse(1, List.of(result))
+                        : ITunesResponse.empty());
+                responseCache.put(lookupFingerprint(id), payload, lookupTtl);
+            } catch (IOException e) {
+                log.debug("Could not cache iTunes lookup for ID {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private ITunesResponse fetchLookup(List<Long> itunesIds, ITunesPriority priority) {
+        String idParam = itunesIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        log.debug("Looking up {} iTunes ID(s): {}", itunesIds.size(), idParam);
+
+        ITunesResponse response = call(ITunesOperation.LOOKUP, priority, "lookup for IDs " + idParam, () -> restClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(ITunesOperation.LOOKUP.getPath())
+                        .queryParam("id", idParam)
+                        .build())
+                .exchange((_, res) -> {
+                    if (res.getStatusCode().is2xxSuccessful()) {
+                        return decoder.decode(res.getBody());
+                    }
+                    throw new RestClientException("iTunes lookup responded with status " + res.getStatusCode().value());
+                }));
+
+        log.debug("iTunes lookup returned {} result(s) for {} ID(s)", response.resultCount(), itunesIds.size());
+        return response;
     }
 
     private ITunesResponse search(String query, String entity, int limit) {
+        return search(query, entity, limit, ITunesPriority.INTERACTIVE);
+    }
+
+    private ITunesResponse search(String query, String entity, int limit, ITunesPriority priority) {
+        ITunesSearchKey key = ITunesSearchKey.of(query, entity, limit);
+        SingleFlight.Result<ITunesResponse> result = searchFlights.execute(
+                new SearchFlight(key, priority), () -> fetchSearch(key, priority));
+        (result.coalesced() ? searchCoalesced : searchIssued).increment();
+        if (result.coalesced()) {
+            log.debug("Coalesced iTunes search for '{}' onto a pending request", key.term());
+        }
+        return result.value();
+    }
+
+    private ITunesResponse fetchSearch(ITunesSearchKey key, ITunesPriority priority) {
+        String query = key.term();
+        ITunesResponse cached = cachedResponse(key.fingerprint());
+        if (cached != null) {
+            log.debug("iTunes search for '{}' answered from the response cache", query);
+            return cached;
+        }
+        log.debug("Searching iTunes for '{}' with entity={}, limit={}", query, key.entity(), key.limit());
+
+        ITunesResponse response = call(ITunesOperation.SEARCH, priority, "search for query '" + query + "'", () -> restClient.get()
+                .uri(uriBuilder -> searchUri(uriBuilder, key))
+                .exchange((_, res) -> {
+                    if (res.getStatusCode().is2xxSuccessful()) {
+                        return decodeAndCache(key.fingerprint(), res.getBody(), searchTtl);
+                    }
+                    throw new RestClientException("iTunes search responded with status " + res.getStatusCode().value());
+                }));
+
+        log.debug("iTunes search returned {} result(s) for query: {}", response.resultCount(), query);
+        return response;
+    }
+
+    /**
+     * Streaming counterpart of {@link #fetchSearch}, behind the same breaker, governor and
+     * adaptive timeout. A stream cancelled by the caller after results arrived counts as a
+     * success, since the upstream was answering.
+     */
+    private Flux<ITunesResult> fetchStream(ITunesSearchKey key) {
+        String description = "search for query '" + key.term() + "'";
+        return Flux.defer(() -> {
+            CircuitBreaker.Permit permit = admit(ITunesOperation.SEARCH, ITunesPriority.INTERACTIVE, description);
+            if (permit == null) {
+                return Flux.empty();
+            }
+            log.debug("Streaming iTunes search for '{}' with entity={}, limit={}", key.term(), key.entity(), key.limit());
+
+            Duration timeout = circuitBreakers.timeoutFor(ITunesOperation.SEARCH);
+            long start = System.nanoTime();
+            List<ITunesResult> received = new ArrayList<>();
+            return Flux.<ITunesResult>create(sink -> {
+                        Future<?> exchange = callExecutor.submit(() -> exchangeStream(key, sink));
+                        sink.onCancel(() -> exchange.cancel(true));
+                    })
+                    .timeout(timeout)
+                    .doOnNext(received::add)
+                    .doOnComplete(() -> {
+                        circuitBreakers.recordLatency(ITunesOperation.SEARCH, System.nanoTime() - start);
+                        permit.onSuccess();
+                        cacheStreamed(key, received);
+                    })
+                    .onErrorResume(TimeoutException.class, _ -> {
+                        circuitBreakers.recordLatency(ITunesOperation.SEARCH, System.nanoTime() - start);
+                        permit.onFailure();
+                        log.warn("iTunes {} timed out after {} ms", description, timeout.toMillis());
+                        return Flux.empty();
+                    })
+                    .onErrorResume(e -> {
+                        permit.onFailure();
+                        log.error("Error during iTunes {}: {}", description, e.getMessage());
+                        return Flux.empty();
+                    })
+                    .doOnCancel(() -> {
+                        if (received.isEmpty()) {
+                            permit.onFailure();
+                        } else {
+                            permit.onSuccess();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Runs a search exchange on the calling thread, handing each result to the sink as
+     * soon as the decoder has read it.
+     */
+    private void exchangeStream(ITunesSearchKey key, FluxSink<ITunesResult> sink) {
         try {
-            log.debug("Searching iTunes for '{}' with entity={}, limit={}", query, entity, limit);
-
-            ITunesResponse response = restClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/search")
-                            .queryParam("term", query)
-                            .queryParam("media", MEDIA_MUSIC)
-                            .queryParam("entity", entity)
-                            .queryParam("limit", Math.min(Math.max(limit, 1), 200))
-                            .build())
+            restClient.get()
+                    .uri(uriBuilder -> searchUri(uriBuilder, key))
                     .exchange((_, res) -> {
                         if (res.getStatusCode().is2xxSuccessful()) {
-                            return objectMapper.readValue(res.getBody(), ITunesResponse.class);
+                            return decoder.decode(res.getBody(), sink::next);
                         }
-                        return ITunesResponse.empty();
+                        throw new RestClientException("iTunes search responded with status " + res.getStatusCode().value());
                     });
+            sink.complete();
+        } catch (RuntimeException e) {
+            sink.error(e);
+        }
+    }
+
+    /**
+     * Caches the results of a completed stream as a regular search payload.
+     */
+    private void cacheStreamed(ITunesSearchKey key, List<ITunesResult> results) {
+        try {
+            responseCache.put(key.fingerprint(), decoder.encode(new ITunesResponse(results.size(), results)), searchTtl);
+        } catch (IOException e) {
+            log.debug("Could not cache streamed iTunes search for '{}': {}", key.term(), e.getMessage());
+        }
+    }
+
+    private static URI searchUri(UriBuilder uriBuilder, ITunesSearchKey key) {
+        return uriBuilder
+                .path(ITunesOperation.SEARCH.getPath())
+                .queryParam("term", key.term())
+                .queryParam("media", MEDIA_MUSIC)
+                .queryParam("entity", key.entity())
+                .queryParam("limit", key.limit())
+                .build();
+    }
+
+    /**
+     * Decodes a response cached under the fingerprint, if any. A payload that no
+     * longer decodes is treated as a miss.
+     */
+    private ITunesResponse cachedResponse(String fingerprint) {
+        byte[] payload = responseCache.get(fingerprint);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return decoder.decode(new ByteArrayInputStream(payload));
+        } catch (IOException e) {
+            log.debug("Ignoring undecodable cached iTunes payload for {}", fingerprint);
+            return null;
+        }
+    }
+
+    private ITunesResponse decodeAndCache(String fingerprint, InputStream body, Duration ttl) throws IOException {
+        byte[] payload = body.readAllBytes();
+        ITunesResponse response = decoder.decode(new ByteArrayInputStream(payload));
+        responseCache.put(fingerprint, payload, ttl);
+        return response;
+    }
+
+    private static String lookupFingerprint(Long itunesId) {
+        return "lookup:" + itunesId;
+    }
 
+    /**
+     * Runs an upstream exchange behind the endpoint's circuit breaker, the quota governor
+     * and the adaptive timeout.
+     * Failures, non-2xx statuses and timeouts are recorded on the breaker and mapped to
+     * an empty response.
+     */
+    private ITunesResponse call(
+            ITunesOperation operation,
+            ITunesPriority priority,
+            String description,
+            Callable<ITunesResponse> exchange
+    ) {
+        CircuitBreaker.Permit permit = admit(operation, priority, description);
+        if (permit == null) {
+            return ITunesResponse.unavailable();
+        }
+
+        Duration timeout = circuitBreakers.timeoutFor(operation);
+        Duration hedgeDelay = hedgeDelay(operation, timeout);
+        long start = System.nanoTime();
+        try {
+            ITunesResponse response = hedger.execute(exchange, hedgeDelay, timeout, priority);
+            circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+            permit.onSuccess();
             if (response == null) {
-                log.warn("Received null response from iTunes Search API for query: {}", query);
+                log.warn("Received null response from iTunes for {}", description);
                 return ITunesResponse.empty();
             }
-
-            log.debug("iTunes search returned {} result(s) for query: {}", response.resultCount(), query);
             return response;
 
-        } catch (RestClientException e) {
-            log.error("Error during iTunes search for query '{}': {}", query, e.getMessage());
-            return ITunesResponse.empty();
+        } catch (TimeoutException e) {
+            circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+            permit.onFailure();
+            log.warn("iTunes {} timed out after {} ms", description, timeout.toMillis());
+            return ITunesResponse.unavailable();
+
+        } catch (ExecutionException e) {
+            permit.onFailure();
+            log.error("Error during iTunes {}: {}", description, e.getCause().getMessage());
+            return ITunesResponse.unavailable();
+
+        } catch (InterruptedException e) {
+            permit.onFailure();
+            Thread.currentThread().interrupt();
+            return ITunesResponse.unavailable();
         }
     }
+
+    /**
+     * Passes the endpoint's circuit breaker and the quota governor, waiting for a token
+     * as the priority allows.
+     *
+     * @return the breaker's permit, or null when the call must be skipped
+     */
+    private CircuitBreaker.Permit admit(ITunesOperation operation, ITunesPriority priority, String description) {
+        if (!circuitBreakers.isAvailable(operation)) {
+            log.debug("iTunes {} circuit is open, skipping {}", operation, description);
+            return null;
+        }
+        if (!governor.acquire(priority)) {
+            log.debug("iTunes quota exhausted, shedding {} {}", priority, description);
+            return null;
+        }
+        CircuitBreaker.Permit permit = circuitBreakers.breaker(operation).tryAcquirePermission();
+        if (permit == null) {
+            log.debug("iTunes {} circuit is open, skipping {}", operation, description);
+        }
+        return permit;
+    }
+
+    /**
+     * Delay after which a lookup is hedged: the configured percentile of recent lookup
+     * latency, floored at the minimum delay. Returns null (no hedge) when hedging is
+     * disabled, for searches, while the circuit is not fully closed, before any latency
+     * has been observed, or when the delay would reach the call timeout.
+     */
+    private Duration hedgeDelay(ITunesOperation operation, Duration timeout) {
+        if (!hedgingEnabled || operation != ITunesOperation.LOOKUP
+                || circuitBreakers.breaker(operation).state() != CircuitBreaker.State.CLOSED) {
+            return null;
+        }
+        Duration observed = circuitBreakers.latencyPercentile(operation, hedgePercentile);
+        if (observed == null) {
+            return null;
+        }
+        Duration delay = observed.compareTo(hedgeMinDelay) < 0 ? hedgeMinDelay : observed;
+        return delay.compareTo(timeout) < 0 ? delay : null;
+    }
+
+    /**
+     * Flushes pending batched lookups and stops the call threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lookupBatcher.close();
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * Whether the endpoint's circuit currently lets calls through. Callers can use
+     * this to answer from local data instead of waiting for an empty response.
+     */
+    public boolean isAvailable(ITunesOperation operation) {
+        return circuitBreakers.isAvailable(operation);
+    }
 }
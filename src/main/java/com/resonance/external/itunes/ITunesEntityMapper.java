@@ -1,5 +1,6 @@
 package com.resonance.external.itunes;
 
+import com.resonance.entities.Media;
 import com.resonance.entities.media.Album;
 import com.resonance.entities.media.Artist;
 import com.resonance.entities.media.Track;
@@ -90,6 +91,22 @@ public final class ITunesEntityMapper {
                 .build();
     }
 
+    /**
+     * Converts an ITunesResult of any supported type to the matching entity.
+     *
+     * @param result the iTunes result to convert
+     * @return Album, Artist or Track entity, or null if the result is of another type
+     */
+    public Media toEntity(ITunesResult result) {
+        if (result.isCollection()) {
+            return toAlbumEntity(result);
+        }
+        if (result.isArtist()) {
+            return toArtistEntity(result);
+        }
+        return result.isTrack() ? toTrackEntity(result) : null;
+    }
+
     /**
      * Upgrades artwork URL from 100x100 to 600x600 for higher resolution.
      *
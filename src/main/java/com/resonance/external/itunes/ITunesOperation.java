@@ -0,0 +1,18 @@
+package com.resonance.external.itunes;
+
+import lombok.Getter;
+
+/**
+ * Endpoint families of the iTunes Search API, guarded and measured independently.
+ */
+@Getter
+public enum ITunesOperation {
+    SEARCH("/search"),
+    LOOKUP("/lookup");
+
+    private final String path;
+
+    ITunesOperation(String path) {
+        this.path = path;
+    }
+}
@@ -0,0 +1,19 @@
+package com.resonance.external.itunes;
+
+/**
+ * Priority classes competing for the iTunes request quota, highest first.
+ */
+public enum ITunesPriority {
+    /**
+     * User-facing searches and lookups.
+     */
+    INTERACTIVE,
+    /**
+     * Discovery feed generation.
+     */
+    FEED,
+    /**
+     * Background refresh and warm-up work.
+     */
+    BACKGROUND
+}
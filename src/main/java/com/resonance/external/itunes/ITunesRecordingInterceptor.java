@@ -0,0 +1,78 @@
+package com.resonance.external.itunes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records successful iTunes responses to an {@link ITunesArchive} while passing
+ * them through unchanged, for later offline replay.
+ * <p>
+ * A multi-ID lookup is recorded as one entry per requested ID, holding that ID's
+ * result or no result if iTunes did not know it, so a replay can answer the same IDs
+ * however they are batched.
+ */
+@Slf4j
+public final class ITunesRecordingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ITunesArchive archive;
+    private final ITunesResponseDecoder decoder;
+
+    public ITunesRecordingInterceptor(Path archivePath, ITunesResponseDecoder decoder) {
+        this.archive = new ITunesArchive(archivePath);
+        this.decoder = decoder;
+        log.info("Recording iTunes responses to {}", archivePath);
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(
+            @NonNull HttpRequest request,
+            byte @NonNull [] body,
+            @NonNull ClientHttpRequestExecution execution
+    ) throws IOException {
+        int status;
+        byte[] payload;
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            status = response.getStatusCode().value();
+            payload = ITunesArchive.readAll(response.getBody());
+        }
+
+        if (status >= 200 && status < 300) {
+            try {
+                List<String> ids = ITunesArchive.lookupIds(request.getMethod(), request.getURI());
+                if (ids.isEmpty()) {
+                    archive.append(ITunesArchive.keyOf(request), status, payload);
+                } else {
+                    recordLookup(ids, status, payload);
+                }
+            } catch (IOException e) {
+                log.warn("Could not record iTunes response for {}: {}", request.getURI(), e.getMessage());
+            }
+        }
+        return new ArchivedResponse(status, payload);
+    }
+
+    private void recordLookup(List<String> ids, int status, byte[] payload) throws IOException {
+        Map<String, ITunesResult> byId = new HashMap<>();
+        for (ITunesResult result : decoder.decode(new ByteArrayInputStream(payload)).results()) {
+            if (result.primaryId() != null) {
+                byId.putIfAbsent(String.valueOf(result.primaryId()), result);
+            }
+        }
+        for (String id : ids) {
+            ITunesResult result = byId.get(id);
+            ITunesResponse single = result != null ? new ITunesResponse(1, List.of(result)) : ITunesResponse.empty();
+            archive.append(ITunesArchive.lookupKeyOf(id), status, decoder.encode(single));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves iTunes requests from an {@link ITunesArchive} instead of the network.
+ * <p>
+ * Each response is delayed by a latency drawn from a log-normal distribution
+ * (configured by its median and sigma), and a configurable share of requests
+ * fails with HTTP 503. The draws for the n-th request of a given key come from a
+ * random source seeded with the configured seed, the key and n, so a run is
+ * reproducible however concurrent requests interleave.
+ * <p>
+ * A lookup that was not recorded verbatim is rebuilt from the per-ID entries of its
+ * IDs, so batching does not change its answer. Requests missing from the archive,
+ * including a lookup with any unrecorded ID, fail with HTTP 503 and are counted as
+ * misses. The client then treats them as unavailable, and nothing is cached as
+ * "not found".
+ * <p>
+ * Serves both the blocking RestClient and, through {@link #asExchangeFilter()}, the
+ * reactive WebClient from one archive.
+ */
+@Slf4j
+public final class ITunesReplayInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final ITunesArchive archive;
+    private final ITunesResponseDecoder decoder;
+    private final Duration medianLatency;
+    private final double latencySigma;
+    private final double errorRate;
+    private final long seed;
+    private final ConcurrentMap<String, AtomicLong> occurrences = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter injectedErrors;
+
+    public ITunesReplayInterceptor(
+            Path archivePath,
+            Duration medianLatency,
+            double latencySigma,
+            double errorRate,
+            long seed,
+            ITunesResponseDecoder decoder,
+            MeterRegistry meterRegistry
+    ) {
+        this.archive = new ITunesArchive(archivePath).load();
+        this.decoder = decoder;
+        this.medianLatency = medianLatency;
+        this.latencySigma = latencySigma;
+        this.errorRate = errorRate;
+        this.seed = seed;
+        this.hits = replayCounter(meterRegistry, "hit");
+        this.misses = replayCounter(meterRegistry, "miss");
+        this.injectedErrors = replayCounter(meterRegistry, "error");
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(
+            @NonNull HttpRequest request,
+            byte @NonNull [] body,
+            @NonNull ClientHttpRequestExecution execution
+    ) throws IOException {
+        Replay replay = replay(request.getMethod(), request.getURI());
+        sleep(replay.latencyNanos());
+        return new ArchivedResponse(replay.status(), replay.body());
+    }
+
+    /**
+     * Returns the same replay as a WebClient filter, for the reactive client.
+     * The synthetic latency is a timer delay rather than a sleeping thread.
+     */
+    public ExchangeFilterFunction asExchangeFilter() {
+        return (request, next) -> {
+            Replay replay = replay(request.method(), request.url());
+            return Mono.delay(Duration.ofNanos(Math.max(replay.latencyNanos(), 0)))
+                    .map(_ -> ClientResponse.create(HttpStatusCode.valueOf(replay.status()))
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(new String(replay.body(), StandardCharsets.UTF_8))
+                            .build());
+        };
+    }
+
+    private record Replay(long latencyNanos, int status, byte[] body) {
+    }
+
+    private Replay replay(HttpMethod method, URI uri) {
+        String key = ITunesArchive.keyOf(method, uri);
+        long occurrence = occurrences.computeIfAbsent(key, _ -> new AtomicLong()).getAndIncrement();
+        SplittableRandom random = new SplittableRandom(seed ^ (31L * key.hashCode() + occurrence) * 0x9E3779B97F4A7C15L);
+        long latencyNanos = (long) (medianLatency.toNanos() * Math.exp(latencySigma * random.nextGaussian()));
+        boolean fail = random.nextDouble() < errorRate;
+
+        if (fail) {
+            injectedErrors.increment();
+            return new Replay(latencyNanos, SERVICE_UNAVAILABLE, new byte[0]);
+        }
+
+        ITunesArchive.Entry entry = archive.get(key);
+        if (entry == null) {
+            entry = assembleLookup(ITunesArchive.lookupIds(method, uri));
+        }
+        if (entry == null) {
+            misses.increment();
+            log.warn("No recorded iTunes response for {}, answering 503", key);
+            return new Replay(latencyNanos, SERVICE_UNAVAILABLE, new byte[0]);
+        }
+        hits.increment();
+        return new Replay(latencyNanos, entry.status(), entry.body());
+    }
+
+    /**
+     * Rebuilds a multi-ID lookup body from the per-ID entries, in request order.
+     *
+     * @return the entry, or null if the request is not a lookup or any ID is missing
+     */
+    private ITunesArchive.Entry assembleLookup(List<String> ids) {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        List<ITunesResult> results = new ArrayList<>(ids.size());
+        try {
+            for (String id : ids) {
+                ITunesArchive.Entry entry = archive.get(ITunesArchive.lookupKeyOf(id));
+                if (entry == null) {
+                    log.debug("No recorded iTunes lookup for ID {}", id);
+                    return null;
+                }
+                results.addAll(decoder.decode(new ByteArrayInputStream(entry.body())).results());
+            }
+            return new ITunesArchive.Entry(200, decoder.encode(new ITunesResponse(results.size(), results)));
+        } catch (IOException e) {
+            log.warn("Could not rebuild recorded iTunes lookup for IDs {}: {}", ids, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during replayed iTunes latency");
+        }
+    }
+
+    private static Counter replayCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("itunes.replay.requests")
+                .description("Replayed iTunes requests by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,243 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket governor for outbound iTunes requests.
+ * <p>
+ * The bucket mirrors the upstream quota (about 20 requests per minute per IP).
+ * Priority classes share it unequally: {@link ITunesPriority#FEED} and
+ * {@link ITunesPriority#BACKGROUND} may only take a token while the bucket stays
+ * above their reserve, and never while a higher class is waiting. Each class
+ * waits up to its own maximum and is shed afterwards, so low-priority work cannot
+ * burn the quota that user-facing calls need.
+ * <p>
+ * In replay mode ({@code itunes.mode=replay}) no request reaches iTunes, so every
+ * token is granted at once and load tests measure the service rather than the quota.
+ */
+@Slf4j
+@Component
+public final class ITunesRequestGovernor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxQueue;
+    private final Map<ITunesPriority, Double> reserves = new EnumMap<>(ITunesPriority.class);
+    private final Map<ITunesPriority, Duration> maxWaits = new EnumMap<>(ITunesPriority.class);
+    private final Map<ITunesPriority, AtomicInteger> waiting = new EnumMap<>(ITunesPriority.class);
+    private final Map<ITunesPriority, Timer> waitTimers = new EnumMap<>(ITunesPriority.class);
+    private final Map<ITunesPriority, Counter> shedCounters = new EnumMap<>(ITunesPriority.class);
+    private final ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean enforced;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public ITunesRequestGovernor(
+            @Value("${itunes.governor.requests-per-minute:20}") int requestsPerMinute,
+            @Value("${itunes.governor.burst:20}") int burst,
+            @Value("${itunes.governor.max-queue:50}") int maxQueue,
+            @Value("${itunes.governor.feed-reserve:0.25}") double feedReserve,
+            @Value("${itunes.governor.background-reserve:0.5}") double backgroundReserve,
+            @Value("${itunes.governor.max-wait.interactive:3s}") Duration interactiveMaxWait,
+            @Value("${itunes.governor.max-wait.feed:1s}") Duration feedMaxWait,
+            @Value("${itunes.governor.max-wait.background:0s}") Duration backgroundMaxWait,
+            @Value("${itunes.mode:live}") String mode,
+            MeterRegistry meterRegistry
+    ) {
+        this.enforced = !"replay".equalsIgnoreCase(mode);
+        if (!enforced) {
+            log.info("iTunes replay mode: request quota not enforced");
+        }
+        this.capacity = burst;
+        this.tokens = burst;
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxQueue = maxQueue;
+
+        reserves.put(ITunesPriority.INTERACTIVE, 0.0);
+        reserves.put(ITunesPriority.FEED, feedReserve * burst);
+        reserves.put(ITunesPriority.BACKGROUND, backgroundReserve * burst);
+        maxWaits.put(ITunesPriority.INTERACTIVE, interactiveMaxWait);
+        maxWaits.put(ITunesPriority.FEED, feedMaxWait);
+        maxWaits.put(ITunesPriority.BACKGROUND, backgroundMaxWait);
+
+        for (ITunesPriority priority : ITunesPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            AtomicInteger queued = new AtomicInteger();
+            waiting.put(priority, queued);
+            Gauge.builder("itunes.governor.queue", queued, AtomicInteger::get)
+                    .description("Requests waiting for an iTunes quota token")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("itunes.governor.wait")
+                    .description("Time spent waiting for an iTunes quota token")
+                    .tag("priority", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            shedCounters.put(priority, Counter.builder("itunes.governor.shed")
+                    .description("Requests shed because no quota token was available in time")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("itunes.governor.tokens", this, ITunesRequestGovernor::availableTokens)
+                .description("iTunes quota tokens currently available")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a quota token, waiting up to the priority's maximum wait.
+     *
+     * @param priority the caller's priority class
+     * @return true if a token was granted, false if the request was shed
+     */
+    public boolean acquire(ITunesPriority priority) {
+        if (!enforced) {
+            return true;
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxWaits.get(priority).toNanos();
+        AtomicInteger queued = waiting.get(priority);
+
+        lock.lock();
+        try {
+            if (tryTake(priority)) {
+                return granted(priority, start);
+            }
+            if (deadline <= start || queued.get() >= maxQueue) {
+                return shed(priority, start);
+            }
+
+            queued.incrementAndGet();
+            try {
+                while (true) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return shed(priority, start);
+                    }
+                    released.awaitNanos(Math.min(remaining, nanosUntilAvailable(priority)));
+                    if (tryTake(priority)) {
+                        return granted(priority, start);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return shed(priority, start);
+            } finally {
+                queued.decrementAndGet();
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a quota token only if one is available right now.
+     *
+     * @param priority the caller's priority class
+     * @return true if a token was granted
+     */
+    public boolean tryAcquire(ITunesPriority priority) {
+        if (!enforced) {
+            return true;
+        }
+        lock.lock();
+        try {
+            return tryTake(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a quota token without blocking the caller. The grant is immediate when a
+     * token is available; otherwise the wait runs on a virtual thread.
+     *
+     * @param priority the caller's priority class
+     * @return a future completing with true if a token was granted, false if the request was shed
+     */
+    public CompletableFuture<Boolean> acquireAsync(ITunesPriority priority) {
+        if (tryAcquire(priority)) {
+            waitTimers.get(priority).record(0, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(true);
+        }
+        return CompletableFuture.supplyAsync(() -> acquire(priority), waiters);
+    }
+
+    public double availableTokens() {
+        lock.lock();
+        try {
+            refill();
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<ITunesPriority, Integer> queueDepths() {
+        Map<ITunesPriority, Integer> depths = new EnumMap<>(ITunesPriority.class);
+        waiting.forEach((priority, queued) -> depths.put(priority, queued.get()));
+        return depths;
+    }
+
+    private boolean tryTake(ITunesPriority priority) {
+        refill();
+        for (ITunesPriority higher : ITunesPriority.values()) {
+            if (higher.ordinal() < priority.ordinal() && waiting.get(higher).get() > 0) {
+                return false;
+            }
+        }
+        if (tokens - 1 < reserves.get(priority)) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+
+    private long nanosUntilAvailable(ITunesPriority priority) {
+        double missing = 1 + reserves.get(priority) - tokens;
+        if (missing <= 0) {
+            // Blocked by a higher-priority waiter; re-check shortly
+            return TimeUnit.MILLISECONDS.toNanos(10);
+        }
+        return (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    private boolean granted(ITunesPriority priority, long start) {
+        waitTimers.get(priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    private boolean shed(ITunesPriority priority, long start) {
+        waitTimers.get(priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        shedCounters.get(priority).increment();
+        log.debug("Shedding {} iTunes request: quota exhausted", priority);
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.resonance.external.itunes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.util.List;
@@ -13,10 +14,28 @@ public record ITunesResponse(
         Integer resultCount,
         List<ITunesResult> results
 ) {
+    private static final ITunesResponse UNAVAILABLE = new ITunesResponse(0, List.of());
+
     /**
      * Returns an empty response with zero results.
      */
     public static ITunesResponse empty() {
         return new ITunesResponse(0, List.of());
     }
+
+    /**
+     * Returns the empty response used when iTunes could not answer (open circuit,
+     * shed request, timeout or error), as opposed to a genuine empty result.
+     */
+    public static ITunesResponse unavailable() {
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Whether this response stands for a call that did not get an answer from iTunes.
+     */
+    @JsonIgnore
+    public boolean isUnavailable() {
+        return this == UNAVAILABLE;
+    }
 }
@@ -0,0 +1,303 @@
+package com.resonance.external.itunes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier cache of raw iTunes payloads, keyed by request fingerprint.
+ * <p>
+ * The local tier is a small in-process Caffeine cache. The shared tier is the
+ * UNLOGGED {@code itunes_response_cache} table, so every replica benefits from
+ * a payload fetched by any of them. Rows carry their own expiry and are removed
+ * by a periodic compaction. The shared tier is best-effort: database errors are
+ * treated as misses, and writes happen off the request path.
+ * <p>
+ * Shared writes go through a bounded queue drained by a single writer thread, which
+ * stores everything pending with one multi-row upsert. A lookup that caches a few
+ * hundred IDs therefore costs one statement rather than one connection checkout per
+ * ID. When the queue is full, new writes are dropped; the payload stays in the local
+ * tier and is written again the next time it is fetched.
+ */
+@Slf4j
+@Component
+public final class ITunesResponseCache {
+
+    private static final int MAX_FINGERPRINT_LENGTH = 512;
+
+    private static final String UPSERT = """
+            INSERT INTO itunes_response_cache (fingerprint, payload, expires_at)
+            VALUES %s
+            ON CONFLICT (fingerprint)
+            DO UPDATE SET payload = EXCLUDED.payload, expires_at = EXCLUDED.expires_at
+            """;
+
+    private record PendingWrite(String key, byte[] payload, Timestamp expiresAt) {
+    }
+
+    private final JdbcClient jdbcClient;
+    private final boolean sharedEnabled;
+    private final int compactionBatchSize;
+    private final int writeBatchSize;
+    private final Cache<String, byte[]> local;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(Thread.ofPlatform()
+            .name("itunes-response-cache-writer")
+            .daemon()
+            .factory());
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Counter compacted;
+    private final Counter droppedWrites;
+    private final Counter failedWrites;
+
+    private volatile boolean running = true;
+
+    public ITunesResponseCache(
+            JdbcClient jdbcClient,
+            @Value("${itunes.response-cache.shared.enabled:true}") boolean sharedEnabled,
+            @Value("${itunes.response-cache.local.max-size:32MB}") DataSize localMaxSize,
+            @Value("${itunes.response-cache.local.ttl:5m}") Duration localTtl,
+            @Value("${itunes.response-cache.compaction.batch-size:5000}") int compactionBatchSize,
+            @Value("${itunes.response-cache.shared.write-queue:2000}") int writeQueueCapacity,
+            @Value("${itunes.response-cache.shared.write-batch-size:200}") int writeBatchSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcClient = jdbcClient;
+        this.sharedEnabled = sharedEnabled;
+        this.compactionBatchSize = compactionBatchSize;
+        this.writeBatchSize = writeBatchSize;
+        this.pendingWrites = new ArrayBlockingQueue<>(writeQueueCapacity);
+        this.local = Caffeine.newBuilder()
+                .maximumWeight(localMaxSize.toBytes())
+                .weigher((String key, byte[] payload) -> key.length() + payload.length)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "itunes-responses");
+
+        this.localHits = tierCounter(meterRegistry, "local");
+        this.sharedHits = tierCounter(meterRegistry, "shared");
+        this.misses = tierCounter(meterRegistry, "miss");
+        this.compacted = Counter.builder("itunes.response-cache.compacted")
+                .description("Expired rows removed from the shared iTunes response cache")
+                .register(meterRegistry);
+        this.droppedWrites = Counter.builder("itunes.response-cache.writes.dropped")
+                .description("Shared iTunes cache writes dropped because the write queue was full")
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("itunes.response-cache.writes.failed")
+                .description("Shared iTunes cache write batches that failed")
+                .register(meterRegistry);
+        Gauge.builder("itunes.response-cache.writes.pending", pendingWrites, BlockingQueue::size)
+                .description("Payloads waiting to be written to the shared iTunes cache")
+                .register(meterRegistry);
+
+        if (sharedEnabled) {
+            writer.execute(this::writeLoop);
+        }
+    }
+
+    /**
+     * Returns the cached payload for a fingerprint, checking the local tier then the shared tier.
+     *
+     * @return the payload, or null on a miss
+     */
+    public byte[] get(String fingerprint) {
+        String key = key(fingerprint);
+        byte[] payload = local.getIfPresent(key);
+        if (payload != null) {
+            localHits.increment();
+            return payload;
+        }
+
+        if (sharedEnabled) {
+            try {
+                payload = jdbcClient.sql("""
+                                SELECT payload FROM itunes_response_cache
+                                WHERE fingerprint = :fingerprint AND expires_at > now()
+                                """)
+                        .param("fingerprint", key)
+                        .query(byte[].class)
+                        .optional()
+                        .orElse(null);
+            } catch (DataAccessException e) {
+                log.debug("Shared iTunes cache read failed: {}", e.getMessage());
+            }
+            if (payload != null) {
+                sharedHits.increment();
+                local.put(key, payload);
+                return payload;
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a payload in both tiers. The shared write is queued and never blocks.
+     */
+    public void put(String fingerprint, byte[] payload, Duration ttl) {
+        String key = key(fingerprint);
+        local.put(key, payload);
+        if (!sharedEnabled) {
+            return;
+        }
+
+        Timestamp expiresAt = Timestamp.from(Instant.now().plus(ttl));
+        if (!running || !pendingWrites.offer(new PendingWrite(key, payload, expiresAt))) {
+            droppedWrites.increment();
+        }
+    }
+
+    /**
+     * Writes what is queued before shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Shared iTunes cache writer did not stop in time, {} write(s) lost", pendingWrites.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(writeBatchSize);
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                PendingWrite first = pendingWrites.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingWrites.drainTo(batch, writeBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Upserts a batch in one statement. Only the latest payload per key is kept, since a
+     * single {@code ON CONFLICT DO UPDATE} cannot touch the same row twice, and keys are
+     * written in a fixed order.
+     */
+    private void write(List<PendingWrite> batch) {
+        Map<String, PendingWrite> latest = new TreeMap<>();
+        for (PendingWrite write : batch) {
+            latest.put(write.key(), write);
+        }
+        List<Object> params = new ArrayList<>(latest.size() * 3);
+        List<String> rows = new ArrayList<>(latest.size());
+        for (PendingWrite write : latest.values()) {
+            rows.add("(?, ?, ?)");
+            params.add(write.key());
+            params.add(write.payload());
+            params.add(write.expiresAt());
+        }
+        try {
+            jdbcClient.sql(UPSERT.formatted(String.join(", ", rows)))
+                    .params(params)
+                    .update();
+        } catch (DataAccessException e) {
+            failedWrites.increment();
+            log.debug("Shared iTunes cache write of {} payload(s) failed: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes expired rows from the shared tier, in batches to keep each statement short.
+     */
+    @Scheduled(
+            fixedDelayString = "${itunes.response-cache.compaction.interval:10m}",
+            initialDelayString = "${itunes.response-cache.compaction.interval:10m}"
+    )
+    public void compact() {
+        if (!sharedEnabled) {
+            return;
+        }
+        try {
+            int deleted;
+            int total = 0;
+            do {
+                deleted = jdbcClient.sql("""
+                                DELETE FROM itunes_response_cache
+                                WHERE fingerprint IN (
+                                    SELECT fingerprint FROM itunes_response_cache
+                                    WHERE expires_at <= now()
+                                    LIMIT :batchSize
+                                )
+                                """)
+                        .param("batchSize", compactionBatchSize)
+                        .update();
+                total += deleted;
+            } while (deleted == compactionBatchSize);
+            compacted.increment(total);
+            if (total > 0) {
+                log.info("Compacted {} expired iTunes response(s) from the shared cache", total);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Shared iTunes cache compaction failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fingerprints longer than the column are replaced by their SHA-256 digest.
+     */
+    private static String key(String fingerprint) {
+        if (fingerprint.length() <= MAX_FINGERPRINT_LENGTH) {
+            return fingerprint;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter tierCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("itunes.response-cache.requests")
+                .description("iTunes response cache lookups by the tier that answered (or miss)")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
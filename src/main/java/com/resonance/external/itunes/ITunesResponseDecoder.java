@@ -0,0 +1,170 @@
+package com.resonance.external.itunes;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming decoder for iTunes Search API responses.
+ * <p>
+ * Walks the JSON with Jackson's token API and materializes only the fields held by
+ * {@link ITunesResult}; every other field is skipped without being bound. Values
+ * that repeat across a response (artist, album, genre names) are deduplicated so a
+ * 200-result page keeps a single instance of each. Results can be handed to a
+ * consumer one by one as soon as each object is decoded.
+ */
+@Component
+public final class ITunesResponseDecoder {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public ITunesResponseDecoder(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(ITunesResponse.class);
+        this.writer = objectMapper.writerFor(ITunesResponse.class);
+    }
+
+    /**
+     * Encodes a response back to the iTunes wire format, e.g. to cache a single
+     * result of a multi-ID lookup on its own.
+     *
+     * @param response the response to encode
+     * @return the JSON payload
+     * @throws IOException if the response cannot be serialized
+     */
+    public byte[] encode(ITunesResponse response) throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    /**
+     * Decodes a complete response body.
+     *
+     * @param body the response body stream
+     * @return the decoded response
+     * @throws IOException if the body is not valid JSON
+     */
+    public ITunesResponse decode(InputStream body) throws IOException {
+        List<ITunesResult> results = new ArrayList<>();
+        decode(body, results::add);
+        return new ITunesResponse(results.size(), results);
+    }
+
+    /**
+     * Decodes a response body, emitting each result as soon as it is read.
+     *
+     * @param body the response body stream
+     * @param sink receives results in response order
+     * @return the number of results emitted
+     * @throws IOException if the body is not valid JSON
+     */
+    public int decode(InputStream body, Consumer<ITunesResult> sink) throws IOException {
+        try (JsonParser parser = reader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+
+            Map<String, String> strings = new HashMap<>();
+            int emitted = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        sink.accept(readResult(parser, strings));
+                        emitted++;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return emitted;
+        }
+    }
+
+    private ITunesResult readResult(JsonParser parser, Map<String, String> strings) throws IOException {
+        String wrapperType = null;
+        Long collectionId = null;
+        Long artistId = null;
+        Long trackId = null;
+        String collectionName = null;
+        String artistName = null;
+        String trackName = null;
+        String artworkUrl60 = null;
+        String artworkUrl100 = null;
+        String releaseDate = null;
+        String collectionViewUrl = null;
+        String artistLinkUrl = null;
+        String trackViewUrl = null;
+        String primaryGenreName = null;
+        String copyright = null;
+        Long trackTimeMillis = null;
+        Integer trackNumber = null;
+        String previewUrl = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "wrapperType" -> wrapperType = shared(parser, strings);
+                case "collectionId" -> collectionId = longValue(parser);
+                case "artistId" -> artistId = longValue(parser);
+                case "trackId" -> trackId = longValue(parser);
+                case "collectionName" -> collectionName = shared(parser, strings);
+                case "artistName" -> artistName = shared(parser, strings);
+                case "trackName" -> trackName = parser.getValueAsString();
+                case "artworkUrl60" -> artworkUrl60 = parser.getValueAsString();
+                case "artworkUrl100" -> artworkUrl100 = parser.getValueAsString();
+                case "releaseDate" -> releaseDate = shared(parser, strings);
+                case "collectionViewUrl" -> collectionViewUrl = shared(parser, strings);
+                case "artistLinkUrl" -> artistLinkUrl = shared(parser, strings);
+                case "trackViewUrl" -> trackViewUrl = parser.getValueAsString();
+                case "primaryGenreName" -> primaryGenreName = shared(parser, strings);
+                case "copyright" -> copyright = shared(parser, strings);
+                case "trackTimeMillis" -> trackTimeMillis = longValue(parser);
+                case "trackNumber" -> trackNumber = intValue(parser);
+                case "previewUrl" -> previewUrl = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new ITunesResult(
+                wrapperType, collectionId, artistId, trackId,
+                collectionName, artistName, trackName,
+                artworkUrl60, artworkUrl100, releaseDate,
+                collectionViewUrl, artistLinkUrl, trackViewUrl,
+                primaryGenreName, copyright, trackTimeMillis,
+                trackNumber, previewUrl
+        );
+    }
+
+    /**
+     * Reads a string value, reusing an identical instance already seen in this response.
+     */
+    private static String shared(JsonParser parser, Map<String, String> strings) throws IOException {
+        String value = parser.getValueAsString();
+        if (value == null) {
+            return null;
+        }
+        String existing = strings.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private static Long longValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+    }
+
+    private static Integer intValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+    }
+}
@@ -1,49 +1,38 @@
 package com.resonance.external.itunes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
  * Represents a single result from the iTunes Search API.
- * Maps the relevant fields from the JSON response for album/music content.
+ * Holds only the fields consumed by {@link ITunesEntityMapper} and
+ * {@link ITunesMediaMapper}; everything else is skipped while decoding.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record ITunesResult(
         String wrapperType,
-        String collectionType,
-        String kind,
         Long collectionId,
         Long artistId,
         Long trackId,
         String collectionName,
-        String collectionCensoredName,
         String artistName,
         String trackName,
-        String trackCensoredName,
         String artworkUrl60,
         String artworkUrl100,
         String releaseDate,
         String collectionViewUrl,
-        String artistViewUrl,
         String artistLinkUrl,
         String trackViewUrl,
         String primaryGenreName,
-        String collectionExplicitness,
-        String trackExplicitness,
-        Integer trackCount,
         String copyright,
-        String country,
-        String currency,
-        Double collectionPrice,
-        Double trackPrice,
         Long trackTimeMillis,
-        Integer discCount,
-        Integer discNumber,
         Integer trackNumber,
         String previewUrl
 ) {
     /**
      * Checks if this result represents a collection (album).
      */
+    @JsonIgnore
     public boolean isCollection() {
         return "collection".equals(wrapperType);
     }
@@ -51,6 +40,7 @@ public record ITunesResult(
     /**
      * Checks if this result represents a track (song).
      */
+    @JsonIgnore
     public boolean isTrack() {
         return "track".equals(wrapperType);
     }
@@ -58,7 +48,25 @@ public record ITunesResult(
     /**
      * Checks if this result represents an artist.
      */
+    @JsonIgnore
     public boolean isArtist() {
         return "artist".equals(wrapperType);
     }
+
+    /**
+     * Returns the ID identifying this result for its own wrapper type
+     * (collectionId for albums, trackId for tracks, artistId for artists).
+     */
+    @JsonIgnore
+    public Long primaryId() {
+        if (wrapperType == null) {
+            return null;
+        }
+        return switch (wrapperType) {
+            case "collection" -> collectionId;
+            case "track" -> trackId;
+            case "artist" -> artistId;
+            default -> null;
+        };
+    }
 }
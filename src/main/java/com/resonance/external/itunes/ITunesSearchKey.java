@@ -0,0 +1,26 @@
+package com.resonance.external.itunes;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized identity of a search request: trimmed, whitespace-collapsed,
+ * lower-cased term, entity and clamped limit.
+ */
+record ITunesSearchKey(String term, String entity, int limit) {
+
+    private static final int MAX_LIMIT = 200;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static ITunesSearchKey of(String query, String entity, int limit) {
+        String term = query == null ? "" : WHITESPACE.matcher(query.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        return new ITunesSearchKey(term, entity, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+
+    /**
+     * Fingerprint of the request in the shared response cache.
+     */
+    String fingerprint() {
+        return "search:" + entity + ":" + limit + ":" + term;
+    }
+}
@@ -0,0 +1,260 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds and instruments the connections used to call iTunes.
+ * <p>
+ * Each exchange holds a lease from a fixed-size pool until its response is
+ * closed. Callers that cannot get a lease within the acquire timeout fail fast
+ * with an {@link IOException}, which RestClient surfaces as a
+ * {@code ResourceAccessException}, instead of queueing without bound.
+ * <p>
+ * The transport read timeout only bounds the wait for response headers, so each
+ * exchange also gets a total deadline counted from send: if the response is still
+ * open when it passes, it is aborted and the thread reading the body gets an
+ * {@link IOException}.
+ * <p>
+ * Exported meters: pool occupancy ({@code itunes.http.pool.active},
+ * {@code itunes.http.pool.pending}, {@code itunes.http.pool.max}), lease wait
+ * time ({@code itunes.http.pool.wait}), rejections
+ * ({@code itunes.http.pool.rejected}) and per-endpoint exchange latency
+ * ({@code itunes.http.client.requests}, tagged by endpoint and outcome).
+ * <p>
+ * The interceptor owns the deadline timer thread; registered as a bean, it is
+ * stopped with the context.
+ */
+public final class ITunesTransportInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String METRIC_REQUESTS = "itunes.http.client.requests";
+    private static final List<String> ENDPOINTS = List.of("/search", "/lookup", "other");
+    private static final List<String> OUTCOMES = List.of("success", "error", "failure");
+
+    private final Semaphore leases;
+    private final Duration acquireTimeout;
+    private final long totalTimeoutNanos;
+    private final ScheduledThreadPoolExecutor deadlines;
+    private final Map<String, Timer> requestTimers = new HashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final Counter aborted;
+
+    public ITunesTransportInterceptor(
+            int maxConnections,
+            Duration acquireTimeout,
+            Duration totalTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        this.leases = new Semaphore(maxConnections, true);
+        this.acquireTimeout = acquireTimeout;
+        this.totalTimeoutNanos = totalTimeout.toNanos();
+        this.deadlines = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("itunes-http-deadline").daemon().factory());
+        this.deadlines.setRemoveOnCancelPolicy(true);
+        for (String endpoint : ENDPOINTS) {
+            for (String outcome : OUTCOMES) {
+                requestTimers.put(timerKey(endpoint, outcome), Timer.builder(METRIC_REQUESTS)
+                        .description("Latency of iTunes exchanges, from send to response close")
+                        .tag("endpoint", endpoint)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+        }
+        this.waitTimer = Timer.builder("itunes.http.pool.wait")
+                .description("Time spent waiting for an iTunes connection lease")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("itunes.http.pool.rejected")
+                .description("iTunes requests rejected because no connection lease became available in time")
+                .register(meterRegistry);
+        this.aborted = Counter.builder("itunes.http.deadline.exceeded")
+                .description("iTunes exchanges aborted because the response was still open at the total deadline")
+                .register(meterRegistry);
+        Gauge.builder("itunes.http.pool.active", leases, l -> maxConnections - l.availablePermits())
+                .description("iTunes connections currently leased")
+                .register(meterRegistry);
+        Gauge.builder("itunes.http.pool.pending", pending, AtomicInteger::get)
+                .description("Requests waiting for an iTunes connection lease")
+                .register(meterRegistry);
+        Gauge.builder("itunes.http.pool.max", () -> maxConnections)
+                .description("Maximum concurrent iTunes connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public @NonNull ClientHttpResponse intercept(
+            @NonNull HttpRequest request,
+            byte @NonNull [] body,
+            @NonNull ClientHttpRequestExecution execution
+    ) throws IOException {
+        acquireLease();
+
+        String endpoint = endpointOf(request);
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            String outcome = response.getStatusCode().is2xxSuccessful() ? "success" : "error";
+            LeasedResponse leased = new LeasedResponse(response, Thread.currentThread(), () -> release(endpoint, outcome, start));
+            long remaining = totalTimeoutNanos - (System.nanoTime() - start);
+            leased.deadline = deadlines.schedule(() -> {
+                if (leased.abort()) {
+                    aborted.increment();
+                }
+            }, Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            return leased;
+        } catch (IOException | RuntimeException e) {
+            release(endpoint, "failure", start);
+            throw e;
+        }
+    }
+
+    private void acquireLease() throws IOException {
+        long waitStart = System.nanoTime();
+        pending.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = leases.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an iTunes connection");
+        } finally {
+            pending.decrementAndGet();
+            waitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            throw new IOException("iTunes connection pool exhausted after waiting " + acquireTimeout.toMillis() + " ms");
+        }
+    }
+
+    private void release(String endpoint, String outcome, long start) {
+        leases.release();
+        requestTimers.get(timerKey(endpoint, outcome)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String timerKey(String endpoint, String outcome) {
+        return endpoint + ' ' + outcome;
+    }
+
+    /**
+     * Stops the deadline timer. Responses still open are no longer aborted at their deadline.
+     */
+    @PreDestroy
+    public void shutdown() {
+        deadlines.shutdownNow();
+    }
+
+    private static String endpointOf(HttpRequest request) {
+        String path = request.getURI().getPath();
+        if (path == null) {
+            return "other";
+        }
+        return switch (path) {
+            case "/search", "/lookup" -> path;
+            default -> "other";
+        };
+    }
+
+    /**
+     * Response wrapper that returns the connection lease exactly once on close, and
+     * can be aborted by the deadline timer while its body is still being read.
+     */
+    private static final class LeasedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Thread reader;
+        private final Runnable onClose;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> deadline;
+
+        private LeasedResponse(ClientHttpResponse delegate, Thread reader, Runnable onClose) {
+            this.delegate = delegate;
+            this.reader = reader;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Interrupts the reading thread and closes the response, unless it was closed first.
+         *
+         * @return true if the response was still open
+         */
+        private boolean abort() {
+            synchronized (closed) {
+                if (closed.get()) {
+                    return false;
+                }
+                // Wakes a reader blocked on the body; the lock keeps it from landing after close
+                reader.interrupt();
+            }
+            close();
+            return true;
+        }
+
+        @Override
+        public @NonNull HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public @NonNull String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public @NonNull HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public @NonNull InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                boolean first;
+                synchronized (closed) {
+                    first = closed.compareAndSet(false, true);
+                }
+                if (first) {
+                    ScheduledFuture<?> timer = deadline;
+                    if (timer != null) {
+                        timer.cancel(false);
+                    }
+                    onClose.run();
+                }
+            }
+        }
+    }
+}
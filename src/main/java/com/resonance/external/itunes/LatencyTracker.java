@@ -0,0 +1,53 @@
+package com.resonance.external.itunes;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of recent call latencies, used to derive percentiles
+ * of observed upstream latency.
+ */
+final class LatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Records one call latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency at that percentile, or {@code null} if nothing was recorded yet
+     */
+    Duration percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0) {
+                return null;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.clamp(index, 0, sorted.length - 1)]);
+    }
+
+    synchronized int size() {
+        return count;
+    }
+}
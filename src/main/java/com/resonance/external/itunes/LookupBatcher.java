@@ -0,0 +1,173 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single-ID iTunes lookups from concurrent callers into multi-ID
+ * {@code /lookup?id=a,b,c} requests.
+ * <p>
+ * A batch is dispatched when the collection window elapses or when it reaches
+ * the size cap, whichever comes first. IDs already pending or in flight are not
+ * requested twice: later callers join the existing future.
+ */
+@Slf4j
+final class LookupBatcher {
+
+    private final Function<List<Long>, ITunesResponse> loader;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("itunes-lookup-batcher").daemon().factory());
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, CompletableFuture<ITunesResult>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final DistributionSummary batchSizes;
+    private final Counter deduplicated;
+
+    private List<Long> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    LookupBatcher(
+            Function<List<Long>, ITunesResponse> loader,
+            Duration window,
+            int maxBatchSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.loader = loader;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("itunes.lookup.batch.size")
+                .description("Number of IDs sent per batched iTunes lookup request")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("itunes.lookup.deduplicated")
+                .description("Lookups that joined an ID already pending or in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an ID for the next batch.
+     *
+     * @param id the iTunes ID to look up
+     * @return future completed with the matching result, or {@code null} if iTunes returned none
+     */
+    CompletableFuture<ITunesResult> submit(Long id) {
+        List<Long> ready = null;
+        CompletableFuture<ITunesResult> future;
+
+        synchronized (lock) {
+            future = inFlight.get(id);
+            if (future != null) {
+                deduplicated.increment();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            inFlight.put(id, future);
+            pending.add(id);
+
+            if (pending.size() >= maxBatchSize) {
+                ready = drainPending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    /**
+     * Dispatches what is pending and stops the timer and dispatch threads, waiting
+     * briefly for batches in flight.
+     */
+    void close() {
+        scheduler.shutdownNow();
+        flush();
+        dispatcher.shutdown();
+        try {
+            if (!dispatcher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Batched iTunes lookups still in flight at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush() {
+        List<Long> ready;
+        synchronized (lock) {
+            ready = drainPending();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    /**
+     * Takes the pending IDs and cancels the timer. Must be called while holding the lock.
+     */
+    private List<Long> drainPending() {
+        List<Long> ready = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return ready;
+    }
+
+    private void dispatch(List<Long> ids) {
+        batchSizes.record(ids.size());
+        dispatcher.execute(() -> {
+            try {
+                ITunesResponse response = loader.apply(ids);
+                if (response.isUnavailable()) {
+                    throw new IllegalStateException("iTunes lookup unavailable");
+                }
+                Map<Long, ITunesResult> byId = new HashMap<>();
+                if (response.results() != null) {
+                    for (ITunesResult result : response.results()) {
+                        Long primaryId = result.primaryId();
+                        if (primaryId != null) {
+                            byId.putIfAbsent(primaryId, result);
+                        }
+                    }
+                }
+                ids.forEach(id -> complete(id, byId.get(id)));
+            } catch (RuntimeException e) {
+                log.error("Batched iTunes lookup for {} ID(s) failed: {}", ids.size(), e.getMessage());
+                ids.forEach(id -> {
+                    CompletableFuture<ITunesResult> future = inFlight.remove(id);
+                    if (future != null) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private void complete(Long id, ITunesResult result) {
+        CompletableFuture<ITunesResult> future = inFlight.remove(id);
+        if (future != null) {
+            future.complete(result);
+        }
+    }
+}
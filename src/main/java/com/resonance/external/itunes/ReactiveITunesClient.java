@@ -0,0 +1,546 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking client for the Apple iTunes Search API.
+ * Uses Spring WebClient over the Reactor Netty pool configured in {@code ITunesHttpConfig}.
+ * <p>
+ * Mirrors {@link ITunesClient}: it shares the same circuit breakers, adaptive timeouts,
+ * quota governor and {@link ITunesResponseCache}, coalesces concurrent identical searches
+ * and streams of the same priority, and maps failures, timeouts and shed calls to an
+ * empty response. No thread is held while a request is on the wire; cache reads, which
+ * may query the shared tier, run on the blocking scheduler.
+ * <p>
+ * Only created with {@code itunes.client.mode=reactive}; services fall back to
+ * {@link ITunesClient} when it is absent.
+ *
+ * @see <a href="https://performance-partners.apple.com/search-api">iTunes Search API Documentation</a>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "itunes.client.mode", havingValue = "reactive")
+public final class ReactiveITunesClient {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final String MEDIA_MUSIC = "music";
+    private static final String ENTITY_ALBUM = "album";
+    private static final String ENTITY_SONG = "musicTrack";
+    private static final String ENTITY_MUSIC_ARTIST = "musicArtist";
+    private static final int MAX_LOOKUP_IDS = 200;
+    private static final int STREAM_DEMAND = 4;
+
+    /**
+     * Coalescing key: a search is only shared between callers of the same priority class.
+     */
+    private record SearchFlight(ITunesSearchKey key, ITunesPriority priority) {
+    }
+
+    private final WebClient webClient;
+    private final ITunesResponseDecoder decoder;
+    private final ITunesCircuitBreakers circuitBreakers;
+    private final ITunesRequestGovernor governor;
+    private final Scheduler blockingScheduler;
+    private final ConcurrentMap<SearchFlight, Mono<ITunesResponse>> searchFlights = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SearchFlight, Flux<ITunesResult>> streamFlights = new ConcurrentHashMap<>();
+    private final ITunesResponseCache responseCache;
+    private final Duration searchTtl;
+    private final Duration lookupTtl;
+    private final Counter searchIssued;
+    private final Counter searchCoalesced;
+
+    public ReactiveITunesClient(
+            @Qualifier("iTunesWebClient") WebClient webClient,
+            ITunesResponseDecoder decoder,
+            ITunesCircuitBreakers circuitBreakers,
+            ITunesRequestGovernor governor,
+            Scheduler blockingScheduler,
+            ITunesResponseCache responseCache,
+            @Value("${itunes.response-cache.search-ttl:1h}") Duration searchTtl,
+            @Value("${itunes.response-cache.lookup-ttl:24h}") Duration lookupTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.searchTtl = searchTtl;
+        this.lookupTtl = lookupTtl;
+        this.decoder = decoder;
+        this.circuitBreakers = circuitBreakers;
+        this.governor = governor;
+        this.blockingScheduler = blockingScheduler;
+        this.searchIssued = Counter.builder("itunes.search.requests")
+                .description("iTunes searches by outcome: issued upstream or coalesced onto a pending call")
+                .tag("outcome", "issued")
+                .register(meterRegistry);
+        this.searchCoalesced = Counter.builder("itunes.search.requests")
+                .description("iTunes searches by outcome: issued upstream or coalesced onto a pending call")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+    }
+
+    public Mono<ITunesResponse> searchAlbums(String query) {
+        return search(query, ENTITY_ALBUM, DEFAULT_LIMIT, ITunesPriority.INTERACTIVE);
+    }
+
+    public Mono<ITunesResponse> searchTracks(String query) {
+        return search(query, ENTITY_SONG, DEFAULT_LIMIT, ITunesPriority.INTERACTIVE);
+    }
+
+    public Mono<ITunesResponse> searchArtists(String query) {
+        return search(query, ENTITY_MUSIC_ARTIST, DEFAULT_LIMIT, ITunesPriority.INTERACTIVE);
+    }
+
+    public Mono<ITunesResponse> searchAll(String query, String entity, int limit) {
+        return search(query, entity, limit, ITunesPriority.INTERACTIVE);
+    }
+
+    public Mono<ITunesResponse> searchAll(String query, String entity, int limit, ITunesPriority priority) {
+        return search(query, entity, limit, priority);
+    }
+
+    /**
+     * Search and emit each result as soon as it is decoded from the response body,
+     * instead of waiting for the whole payload.
+     * <p>
+     * A cached payload is replayed from the response cache. Otherwise the stream joins a
+     * pending identical search or stream, or starts its own exchange; results of a
+     * completed exchange are cached like a regular search.
+     *
+     * @param query  the search term
+     * @param entity the iTunes entity to search for
+     * @param limit  maximum number of results
+     * @return the results in response order; empty on error, timeout, open circuit or when shed
+     */
+    public Flux<ITunesResult> streamSearch(String query, String entity, int limit) {
+        ITunesSearchKey key = ITunesSearchKey.of(query, entity, limit);
+        SearchFlight flight = new SearchFlight(key, ITunesPriority.INTERACTIVE);
+        return cachedResponse(key.fingerprint())
+                .flatMapIterable(ITunesResponse::results)
+                .switchIfEmpty(Flux.defer(() -> {
+                    Mono<ITunesResponse> pending = searchFlights.get(flight);
+                    if (pending != null) {
+                        searchCoalesced.increment();
+                        return pending.flatMapIterable(response -> response.results() != null ? response.results() : List.of());
+                    }
+
+                    boolean[] leader = {false};
+                    Flux<ITunesResult> shared = streamFlights.computeIfAbsent(flight, k -> {
+                        leader[0] = true;
+                        return fetchStream(k.key())
+                                .doFinally(_ -> streamFlights.remove(k))
+                                .replay()
+                                .refCount();
+                    });
+                    (leader[0] ? searchIssued : searchCoalesced).increment();
+                    return shared;
+                }));
+    }
+
+    /**
+     * Lookup content by iTunes ID.
+     *
+     * @param itunesId the iTunes ID to lookup
+     * @return ITunesResponse containing the result, an empty response if iTunes has no match,
+     * or {@link ITunesResponse#unavailable()} on error
+     */
+    public Mono<ITunesResponse> lookupById(Long itunesId) {
+        return lookupByIds(List.of(itunesId), ITunesPriority.INTERACTIVE)
+                .map(response -> {
+                    if (response.isUnavailable()) {
+                        return response;
+                    }
+                    List<ITunesResult> matches = response.results().stream()
+                            .filter(result -> itunesId.equals(result.primaryId()))
+                            .limit(1)
+                            .toList();
+                    return new ITunesResponse(matches.size(), matches);
+                });
+    }
+
+    /**
+     * Lookup several items by iTunes ID, at most 200 per request, on behalf of a given priority class.
+     * <p>
+     * Each ID is answered from the response cache when possible; only the missing IDs
+     * go upstream, and each of their answers is cached, as {@link ITunesClient} does.
+     *
+     * @param itunesIds the iTunes IDs to lookup
+     * @param priority  the quota priority of the caller
+     * @return ITunesResponse containing every result found, or {@link ITunesResponse#unavailable()}
+     * if any request failed or was shed
+     */
+    public Mono<ITunesResponse> lookupByIds(Collection<Long> itunesIds, ITunesPriority priority) {
+        if (itunesIds == null || itunesIds.isEmpty()) {
+            return Mono.just(ITunesResponse.empty());
+        }
+
+        return Mono.fromCallable(() -> {
+                    Map<Long, ITunesResponse> cached = new HashMap<>();
+                    for (Long id : itunesIds) {
+                        ITunesResponse response = decodeCached(lookupFingerprint(id));
+                        if (response != null) {
+                            cached.put(id, response);
+                        }
+                    }
+                    return cached;
+                })
+                .subscribeOn(blockingScheduler)
+                .flatMap(cached -> {
+                    List<ITunesResult> results = new ArrayList<>();
+                    List<Long> missing = new ArrayList<>();
+                    for (Long id : itunesIds) {
+                        ITunesResponse response = cached.get(id);
+                        if (response != null) {
+                            results.addAll(response.results());
+                        } else {
+                            missing.add(id);
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        return Mono.just(new ITunesResponse(results.size(), results));
+                    }
+                    return lookupUpstream(missing, priority).map(fetched -> {
+                        if (fetched.isUnavailable()) {
+                            return fetched;
+                        }
+                        results.addAll(fetched.results());
+                        return new ITunesResponse(results.size(), results);
+                    });
+                });
+    }
+
+    /**
+     * Looks IDs up upstream, at most 200 per request, and caches each ID's answer
+     * (including "no result") in the response cache. Stops at the first failed request,
+     * whose IDs would otherwise look unknown to iTunes; the answered ones stay cached.
+     */
+    private Mono<ITunesResponse> lookupUpstream(List<Long> itunesIds, ITunesPriority priority) {
+        List<Long> ids = List.copyOf(itunesIds);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_LOOKUP_IDS) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_LOOKUP_IDS, ids.size())));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(chunk -> fetchLookup(chunk, priority).doOnNext(response -> {
+                    if (!response.isUnavailable()) {
+                        cacheLookupResults(chunk, response);
+                    }
+                }))
+                .takeUntil(ITunesResponse::isUnavailable)
+                .collectList()
+                .map(responses -> {
+                    if (responses.stream().anyMatch(ITunesResponse::isUnavailable)) {
+                        return ITunesResponse.unavailable();
+                    }
+                    List<ITunesResult> results = responses.stream()
+                            .filter(response -> response.results() != null)
+                            .flatMap(response -> response.results().stream())
+                            .toList();
+                    return new ITunesResponse(results.size(), results);
+                });
+    }
+
+    private void cacheLookupResults(List<Long> ids, ITunesResponse response) {
+        Map<Long, ITunesResult> byId = new HashMap<>();
+        if (response.results() != null) {
+            for (ITunesResult result : response.results()) {
+                Long primaryId = result.primaryId();
+                if (primaryId != null) {
+                    byId.putIfAbsent(primaryId, result);
+                }
+            }
+        }
+        for (Long id : ids) {
+            ITunesResult result = byId.get(id);
+            try {
+                byte[] payload = decoder.encode(result != null
+                        ? new ITunesResponse(1, List.of(result))
+                        : ITunesResponse.empty());
+                responseCache.put(lookupFingerprint(id), payload, lookupTtl);
+            } catch (IOException e) {
+                log.debug("Could not cache iTunes lookup for ID {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private static String lookupFingerprint(Long itunesId) {
+        return "lookup:" + itunesId;
+    }
+
+    /**
+     * Whether the endpoint's circuit currently lets calls through.
+     */
+    public boolean isAvailable(ITunesOperation operation) {
+        return circuitBreakers.isAvailable(operation);
+    }
+
+    private Mono<ITunesResponse> search(String query, String entity, int limit, ITunesPriority priority) {
+        SearchFlight flight = new SearchFlight(ITunesSearchKey.of(query, entity, limit), priority);
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<ITunesResponse> shared = searchFlights.computeIfAbsent(flight, k -> {
+                leader[0] = true;
+                return fetchSearch(k.key(), k.priority())
+                        .doFinally(_ -> searchFlights.remove(k))
+                        .cache();
+            });
+            (leader[0] ? searchIssued : searchCoalesced).increment();
+            return shared;
+        });
+    }
+
+    private Mono<ITunesResponse> fetchSearch(ITunesSearchKey key, ITunesPriority priority) {
+        String query = key.term();
+        return cachedResponse(key.fingerprint())
+                .doOnNext(_ -> log.debug("iTunes search for '{}' answered from the response cache", query))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.debug("Searching iTunes (reactive) for '{}' with entity={}, limit={}", query, key.entity(), key.limit());
+                    return call(ITunesOperation.SEARCH, priority, "search for query '" + query + "'", () -> webClient.get()
+                            .uri(uriBuilder -> searchUri(uriBuilder, key))
+                            .exchangeToMono(res -> res.statusCode().is2xxSuccessful()
+                                    ? res.bodyToMono(byte[].class).map(body -> decodeAndCache(key.fingerprint(), body))
+                                    : res.createError()));
+                }));
+    }
+
+    private Flux<ITunesResult> fetchStream(ITunesSearchKey key) {
+        log.debug("Streaming iTunes search for '{}' with entity={}, limit={}", key.term(), key.entity(), key.limit());
+
+        return Flux.defer(() -> {
+            List<ITunesResult> received = new ArrayList<>();
+            return callStreaming(ITunesOperation.SEARCH, ITunesPriority.INTERACTIVE, "search for query '" + key.term() + "'", () -> webClient.get()
+                    .uri(uriBuilder -> searchUri(uriBuilder, key))
+                    .exchangeToFlux(res -> res.statusCode().is2xxSuccessful()
+                            ? decodeStream(res.bodyToFlux(DataBuffer.class))
+                            : res.<ITunesResult>createError().flux())
+                    .doOnNext(received::add)
+                    .doOnComplete(() -> cacheStreamed(key, received)));
+        });
+    }
+
+    private Mono<ITunesResponse> fetchLookup(List<Long> itunesIds, ITunesPriority priority) {
+        String idParam = itunesIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        log.debug("Looking up {} iTunes ID(s) (reactive): {}", itunesIds.size(), idParam);
+
+        return call(ITunesOperation.LOOKUP, priority, "lookup for IDs " + idParam, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(ITunesOperation.LOOKUP.getPath())
+                        .queryParam("id", idParam)
+                        .build())
+                .exchangeToMono(res -> res.statusCode().is2xxSuccessful()
+                        ? res.bodyToMono(byte[].class).map(this::decode)
+                        : res.createError()));
+    }
+
+    /**
+     * Runs an upstream exchange behind the endpoint's circuit breaker, the quota governor
+     * and the adaptive timeout, like {@code ITunesClient#call} but without blocking.
+     * Waiting for a quota token happens on a virtual thread (see
+     * {@link ITunesRequestGovernor#acquireAsync}).
+     */
+    private Mono<ITunesResponse> call(
+            ITunesOperation operation,
+            ITunesPriority priority,
+            String description,
+            Supplier<Mono<ITunesResponse>> exchange
+    ) {
+        return admit(operation, priority, description).flatMap(permit -> {
+            Duration timeout = circuitBreakers.timeoutFor(operation);
+            long start = System.nanoTime();
+            return exchange.get()
+                    .timeout(timeout)
+                    .doOnSuccess(_ -> {
+                        circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+                        permit.onSuccess();
+                    })
+                    .onErrorResume(TimeoutException.class, _ -> {
+                        circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+                        permit.onFailure();
+                        log.warn("iTunes {} timed out after {} ms", description, timeout.toMillis());
+                        return Mono.just(ITunesResponse.unavailable());
+                    })
+                    .onErrorResume(e -> {
+                        permit.onFailure();
+                        log.error("Error during iTunes {}: {}", description, e.getMessage());
+                        return Mono.just(ITunesResponse.unavailable());
+                    })
+                    .doOnCancel(permit::onFailure)
+                    .defaultIfEmpty(ITunesResponse.empty());
+        }).defaultIfEmpty(ITunesResponse.unavailable());
+    }
+
+    /**
+     * Streaming counterpart of {@link #call}. The timeout bounds the wait for the first
+     * result and between results. A stream cancelled by the caller after results arrived
+     * counts as a success, since the upstream was answering.
+     */
+    private Flux<ITunesResult> callStreaming(
+            ITunesOperation operation,
+            ITunesPriority priority,
+            String description,
+            Supplier<Flux<ITunesResult>> exchange
+    ) {
+        return admit(operation, priority, description).flatMapMany(permit -> {
+            Duration timeout = circuitBreakers.timeoutFor(operation);
+            long start = System.nanoTime();
+            AtomicBoolean received = new AtomicBoolean();
+            return exchange.get()
+                    .timeout(timeout)
+                    .doOnNext(_ -> received.set(true))
+                    .doOnComplete(() -> {
+                        circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+                        permit.onSuccess();
+                    })
+                    .onErrorResume(TimeoutException.class, _ -> {
+                        circuitBreakers.recordLatency(operation, System.nanoTime() - start);
+                        permit.onFailure();
+                        log.warn("iTunes {} timed out after {} ms", description, timeout.toMillis());
+                        return Flux.empty();
+                    })
+                    .onErrorResume(e -> {
+                        permit.onFailure();
+                        log.error("Error during iTunes {}: {}", description, e.getMessage());
+                        return Flux.empty();
+                    })
+                    .doOnCancel(() -> {
+                        if (received.get()) {
+                            permit.onSuccess();
+                        } else {
+                            permit.onFailure();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Passes the endpoint's circuit breaker and the quota governor. Completes with the
+     * breaker's permit, or empty when the call must be skipped.
+     */
+    private Mono<CircuitBreaker.Permit> admit(ITunesOperation operation, ITunesPriority priority, String description) {
+        return Mono.defer(() -> {
+            if (!circuitBreakers.isAvailable(operation)) {
+                log.debug("iTunes {} circuit is open, skipping {}", operation, description);
+                return Mono.empty();
+            }
+            return Mono.fromFuture(governor.acquireAsync(priority)).flatMap(granted -> {
+                if (!granted) {
+                    log.debug("iTunes quota exhausted, shedding {} {}", priority, description);
+                    return Mono.empty();
+                }
+                CircuitBreaker.Permit permit = circuitBreakers.breaker(operation).tryAcquirePermission();
+                if (permit == null) {
+                    log.debug("iTunes {} circuit is open, skipping {}", operation, description);
+                    return Mono.empty();
+                }
+                return Mono.just(permit);
+            });
+        });
+    }
+
+    /**
+     * Decodes a body as it arrives: the streaming decoder reads the buffers through an
+     * input stream on the blocking scheduler and emits each result once its object ends.
+     */
+    private Flux<ITunesResult> decodeStream(Flux<DataBuffer> body) {
+        return Flux.<ITunesResult>create(sink -> {
+            try (InputStream in = DataBufferUtils.subscriberInputStream(body, STREAM_DEMAND)) {
+                decoder.decode(in, sink::next);
+                sink.complete();
+            } catch (IOException e) {
+                sink.error(new UncheckedIOException(e));
+            }
+        }).subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Reads the response cache on the blocking scheduler. A payload that no longer decodes
+     * is treated as a miss.
+     */
+    private Mono<ITunesResponse> cachedResponse(String fingerprint) {
+        return Mono.fromCallable(() -> decodeCached(fingerprint))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Decodes a response cached under the fingerprint, if any. Blocks on a shared-tier read.
+     */
+    private ITunesResponse decodeCached(String fingerprint) {
+        byte[] payload = responseCache.get(fingerprint);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return decoder.decode(new ByteArrayInputStream(payload));
+        } catch (IOException e) {
+            log.debug("Ignoring undecodable cached iTunes payload for {}", fingerprint);
+            return null;
+        }
+    }
+
+    private ITunesResponse decodeAndCache(String fingerprint, byte[] body) {
+        ITunesResponse response = decode(body);
+        responseCache.put(fingerprint, body, searchTtl);
+        return response;
+    }
+
+    /**
+     * Caches the results of a completed stream as a regular search payload.
+     */
+    private void cacheStreamed(ITunesSearchKey key, List<ITunesResult> results) {
+        try {
+            responseCache.put(key.fingerprint(), decoder.encode(new ITunesResponse(results.size(), results)), searchTtl);
+        } catch (IOException e) {
+            log.debug("Could not cache streamed iTunes search for '{}': {}", key.term(), e.getMessage());
+        }
+    }
+
+    private static URI searchUri(UriBuilder uriBuilder, ITunesSearchKey key) {
+        return uriBuilder
+                .path(ITunesOperation.SEARCH.getPath())
+                .queryParam("term", key.term())
+                .queryParam("media", MEDIA_MUSIC)
+                .queryParam("entity", key.entity())
+                .queryParam("limit", key.limit())
+                .build();
+    }
+
+    private ITunesResponse decode(byte[] body) {
+        try {
+            return decoder.decode(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
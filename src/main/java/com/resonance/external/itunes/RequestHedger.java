@@ -0,0 +1,144 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs an upstream exchange with an optional hedge.
+ * <p>
+ * If the first attempt has not answered after the hedge delay, one duplicate is
+ * fired and the first successful answer wins; the other attempt is cancelled.
+ * Hedges draw from a budget that every hedgeable call refills by a fixed ratio
+ * (e.g. 0.05 for at most 5% extra requests), capped so that a quiet period cannot
+ * bank a burst of hedges for the next incident. A hedge also needs a quota token
+ * available right away from the {@link ITunesRequestGovernor}.
+ */
+final class RequestHedger {
+
+    private final ExecutorService executor;
+    private final ITunesRequestGovernor governor;
+    private final double budgetRatio;
+    private final double maxBudget;
+    private final Counter issued;
+    private final Counter denied;
+    private final Counter won;
+
+    private double budget;
+
+    RequestHedger(
+            ExecutorService executor,
+            ITunesRequestGovernor governor,
+            double budgetRatio,
+            double maxBudget,
+            MeterRegistry meterRegistry
+    ) {
+        this.executor = executor;
+        this.governor = governor;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+        this.issued = hedgeCounter(meterRegistry, "issued");
+        this.denied = hedgeCounter(meterRegistry, "denied");
+        this.won = hedgeCounter(meterRegistry, "won");
+    }
+
+    /**
+     * Runs the exchange, hedging it once after {@code hedgeDelay} if budget allows.
+     *
+     * @param exchange   the upstream call
+     * @param hedgeDelay delay before firing a duplicate, or null to never hedge
+     * @param timeout    overall deadline for an answer
+     * @param priority   quota priority of the caller
+     * @return the first successful answer
+     * @throws TimeoutException   if no attempt answered before the deadline
+     * @throws ExecutionException if every attempt failed (the last failure is reported)
+     */
+    ITunesResponse execute(
+            Callable<ITunesResponse> exchange,
+            Duration hedgeDelay,
+            Duration timeout,
+            ITunesPriority priority
+    ) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        ExecutorCompletionService<ITunesResponse> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ITunesResponse>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(exchange));
+
+        try {
+            if (hedgeDelay != null) {
+                deposit();
+                Future<ITunesResponse> first = completion.poll(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    return first.get();
+                }
+                if (tryWithdraw()) {
+                    if (governor.tryAcquire(priority)) {
+                        issued.increment();
+                        attempts.add(completion.submit(exchange));
+                    } else {
+                        // No quota token: the hedge was never sent, so it must not cost budget
+                        refund();
+                        denied.increment();
+                    }
+                } else {
+                    denied.increment();
+                }
+            }
+
+            int pending = attempts.size();
+            while (true) {
+                Future<ITunesResponse> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException();
+                }
+                pending--;
+                try {
+                    ITunesResponse response = done.get();
+                    if (attempts.size() > 1 && done == attempts.get(1)) {
+                        won.increment();
+                    }
+                    return response;
+                } catch (ExecutionException e) {
+                    if (pending == 0) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(maxBudget, budget + budgetRatio);
+    }
+
+    private synchronized boolean tryWithdraw() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private synchronized void refund() {
+        budget = Math.min(maxBudget, budget + 1);
+    }
+
+    private static Counter hedgeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("itunes.hedge.requests")
+                .description("Hedged iTunes lookups by outcome: issued, denied by budget or quota, or won the race")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
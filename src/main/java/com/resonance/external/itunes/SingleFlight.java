@@ -0,0 +1,85 @@
+package com.resonance.external.itunes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * In-flight request table that collapses concurrent calls sharing the same key.
+ * <p>
+ * The first caller for a key (the leader) runs the call; callers arriving while
+ * it is pending join the leader's future and receive the same result. The entry
+ * is removed as soon as the call completes, so nothing is cached afterwards.
+ *
+ * @param <K> the request key type
+ * @param <V> the response type
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of a single-flight call.
+     *
+     * @param value     the shared response
+     * @param coalesced true if the caller joined another caller's pending request
+     */
+    record Result<V>(V value, boolean coalesced) {
+    }
+
+    /**
+     * Runs the call for the given key, or joins the pending call if one exists.
+     *
+     * @param key  the request key
+     * @param call the upstream call, executed only by the leader
+     * @return the shared result
+     */
+    Result<V> execute(K key, Supplier<V> call) {
+        CompletableFuture<V> leader = new CompletableFuture<>();
+        CompletableFuture<V> pending = inFlight.putIfAbsent(key, leader);
+        if (pending != null) {
+            return new Result<>(join(pending), true);
+        }
+
+        try {
+            V value = call.get();
+            leader.complete(value);
+            return new Result<>(value, false);
+        } catch (RuntimeException | Error e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    /**
+     * Returns the pending call for the given key, for callers that consume the result
+     * asynchronously instead of joining through {@link #execute}.
+     *
+     * @return the leader's future, or null if no call is in flight
+     */
+    CompletableFuture<V> pending(K key) {
+        return inFlight.get(key);
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+    private V join(CompletableFuture<V> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.resonance.repository;
+
+import com.resonance.entities.Media;
+import com.resonance.entities.enums.MediaType;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes to the media table, bypassing the persistence context.
+ */
+public interface MediaBulkOperations {
+
+    /**
+     * State of a row that existed before an upsert.
+     *
+     * @param type          the stored media type
+     * @param averageRating the stored average rating
+     * @param ratingCount   the stored rating count
+     */
+    record StoredMedia(MediaType type, Double averageRating, Integer ratingCount) {
+    }
+
+    /**
+     * Inserts the given media, or refreshes the iTunes-sourced columns of existing rows
+     * of the same type, in a single statement. Rows whose values are unchanged only get
+     * their fetch time bumped, and rows stored with another type are left alone.
+     *
+     * @param media entities to write, with distinct IDs
+     * @return the pre-existing rows among the given IDs, keyed by ID; absent IDs were inserted
+     * or could not be written
+     */
+    Map<String, StoredMedia> upsertAll(List<Media> media);
+
+    /**
+     * Refreshes the iTunes-sourced columns of existing rows of the same type and marks
+     * them as fetched at the given time, in a single statement. Absent rows are not
+     * inserted.
+     *
+     * @param media    freshly fetched entities, with distinct IDs
+     * @param cachedAt the fetch time to record
+     * @return the number of rows updated
+     */
+    int refreshAll(List<Media> media, Instant cachedAt);
+
+    /**
+     * Marks rows as fetched at the given time without changing their content, e.g.
+     * after iTunes had no newer data for them.
+     *
+     * @param ids      IDs of the rows to mark
+     * @param cachedAt the fetch time to record
+     * @return the number of rows updated
+     */
+    int touchAll(Collection<String> ids, Instant cachedAt);
+}
@@ -0,0 +1,227 @@
+package com.resonance.repository;
+
+import com.resonance.entities.Media;
+import com.resonance.entities.enums.MediaType;
+import com.resonance.entities.media.Album;
+import com.resonance.entities.media.Artist;
+import com.resonance.entities.media.Track;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-row {@code INSERT ... ON CONFLICT} and {@code UPDATE ... FROM (VALUES ...)}
+ * statements for {@link MediaBulkOperations}.
+ * <p>
+ * The statement reports the pre-existing rows in the same round trip: the final
+ * {@code SELECT} runs against the snapshot taken before the insert, so it sees
+ * exactly the rows that were already there.
+ */
+@RequiredArgsConstructor
+class MediaBulkOperationsImpl implements MediaBulkOperations {
+
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, cast(? as integer), cast(? as integer), ?)";
+
+    /**
+     * Whether a stored row differs from the input row {@code %1$s}, once null input
+     * columns keep their stored value.
+     */
+    private static final String DIFFERS = """
+            (media.title, media.artist_name, media.image_url, media.release_date, media.itunes_url,
+             media.preview_url, media.genre, media.label, media.duration, media.track_number,
+             media.thumbnail_url)
+            is distinct from
+            (%1$s.title, %1$s.artist_name,
+             coalesce(%1$s.image_url, media.image_url),
+             coalesce(%1$s.release_date, media.release_date),
+             coalesce(%1$s.itunes_url, media.itunes_url),
+             coalesce(%1$s.preview_url, media.preview_url),
+             coalesce(%1$s.genre, media.genre),
+             coalesce(%1$s.label, media.label),
+             coalesce(%1$s.duration, media.duration),
+             coalesce(%1$s.track_number, media.track_number),
+             coalesce(%1$s.thumbnail_url, media.thumbnail_url))
+            """;
+
+    /**
+     * Changed rows of the same type are rewritten with the new fetch time; unchanged
+     * ones only get {@code cached_at} bumped by the {@code touched} CTE. Both CTEs read
+     * the same snapshot and their predicates are disjoint, so no row is written twice.
+     */
+    private static final String UPSERT = """
+            with input (id, type, title, artist_name, image_url, release_date, itunes_url,
+                        preview_url, genre, label, duration, track_number, thumbnail_url) as (
+                values %%s
+            ),
+            upserted as (
+                insert into media (id, type, title, artist_name, image_url, release_date, itunes_url,
+                                   preview_url, genre, label, duration, track_number, thumbnail_url,
+                                   rating_count, cached_at)
+                select id, type, title, artist_name, image_url, release_date, itunes_url,
+                       preview_url, genre, label, duration, track_number, thumbnail_url,
+                       0, cast(? as timestamp)
+                from input
+                on conflict (id) do update set
+                    title         = excluded.title,
+                    artist_name   = excluded.artist_name,
+                    image_url     = coalesce(excluded.image_url, media.image_url),
+                    release_date  = coalesce(excluded.release_date, media.release_date),
+                    itunes_url    = coalesce(excluded.itunes_url, media.itunes_url),
+                    preview_url   = coalesce(excluded.preview_url, media.preview_url),
+                    genre         = coalesce(excluded.genre, media.genre),
+                    label         = coalesce(excluded.label, media.label),
+                    duration      = coalesce(excluded.duration, media.duration),
+                    track_number  = coalesce(excluded.track_number, media.track_number),
+                    thumbnail_url = coalesce(excluded.thumbnail_url, media.thumbnail_url),
+                    cached_at     = excluded.cached_at
+                where media.type = excluded.type
+                  and %s
+                returning id
+            ),
+            touched as (
+                update media set cached_at = cast(? as timestamp)
+                from input
+                where media.id = input.id
+                  and media.type = input.type
+                  and not (%s)
+                returning media.id
+            )
+            select id, type, average_rating, rating_count from media
+            where id in (select id from input)
+            """.formatted(DIFFERS.formatted("excluded"), DIFFERS.formatted("input"));
+
+    private static final String REFRESH = """
+            update media set
+                title         = input.title,
+                artist_name   = input.artist_name,
+                image_url     = coalesce(input.image_url, media.image_url),
+                release_date  = coalesce(input.release_date, media.release_date),
+                itunes_url    = coalesce(input.itunes_url, media.itunes_url),
+                preview_url   = coalesce(input.preview_url, media.preview_url),
+                genre         = coalesce(input.genre, media.genre),
+                label         = coalesce(input.label, media.label),
+                duration      = coalesce(input.duration, media.duration),
+                track_number  = coalesce(input.track_number, media.track_number),
+                thumbnail_url = coalesce(input.thumbnail_url, media.thumbnail_url),
+                cached_at     = cast(? as timestamp)
+            from (values %s) as input (id, type, title, artist_name, image_url, release_date, itunes_url,
+                                       preview_url, genre, label, duration, track_number, thumbnail_url)
+            where media.id = input.id and media.type = input.type
+            """;
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    public Map<String, StoredMedia> upsertAll(List<Media> media) {
+        if (media.isEmpty()) {
+            return Map.of();
+        }
+
+        // A fixed key order keeps concurrent upserts from locking rows in opposite orders
+        List<Media> ordered = media.stream().sorted(Comparator.comparing(Media::getId)).toList();
+        List<Object> params = new ArrayList<>(ordered.size() * 13 + 1);
+        List<String> rows = new ArrayList<>(ordered.size());
+        for (Media item : ordered) {
+            rows.add(ROW);
+            addRow(params, item);
+        }
+        // Fetch time of inserted and changed rows, then of unchanged ones
+        Timestamp fetchedAt = Timestamp.from(Instant.now());
+        params.add(fetchedAt);
+        params.add(fetchedAt);
+
+        Map<String, StoredMedia> stored = new HashMap<>();
+        jdbcClient.sql(UPSERT.formatted(String.join(", ", rows)))
+                .params(params)
+                .query(rs -> {
+                    BigDecimal rating = rs.getBigDecimal("average_rating");
+                    stored.put(rs.getString("id"), new StoredMedia(
+                            MediaType.valueOf(rs.getString("type")),
+                            rating != null ? rating.doubleValue() : null,
+                            rs.getInt("rating_count")
+                    ));
+                });
+        return stored;
+    }
+
+    @Override
+    public int refreshAll(List<Media> media, Instant cachedAt) {
+        if (media.isEmpty()) {
+            return 0;
+        }
+
+        List<Media> ordered = media.stream().sorted(Comparator.comparing(Media::getId)).toList();
+        List<Object> params = new ArrayList<>(ordered.size() * 13 + 1);
+        params.add(Timestamp.from(cachedAt));
+        List<String> rows = new ArrayList<>(ordered.size());
+        for (Media item : ordered) {
+            rows.add(ROW);
+            addRow(params, item);
+        }
+
+        return jdbcClient.sql(REFRESH.formatted(String.join(", ", rows)))
+                .params(params)
+                .update();
+    }
+
+    @Override
+    public int touchAll(Collection<String> ids, Instant cachedAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcClient.sql("update media set cached_at = :cachedAt where id in (:ids)")
+                .param("cachedAt", Timestamp.from(cachedAt))
+                .param("ids", ids.stream().sorted().toList())
+                .update();
+    }
+
+    private static void addRow(List<Object> params, Media item) {
+        String genre = null;
+        String label = null;
+        Integer duration = null;
+        Integer trackNumber = null;
+        String thumbnailUrl = null;
+        MediaType type = switch (item) {
+            case Album album -> {
+                genre = album.getGenre();
+                label = album.getLabel();
+                yield MediaType.ALBUM;
+            }
+            case Track track -> {
+                genre = track.getGenre();
+                duration = track.getDuration();
+                trackNumber = track.getTrackNumber();
+                thumbnailUrl = track.getThumbnailUrl();
+                yield MediaType.TRACK;
+            }
+            case Artist artist -> {
+                genre = artist.getGenre();
+                yield MediaType.ARTIST;
+            }
+            default -> throw new IllegalArgumentException("Unsupported media: " + item.getClass().getSimpleName());
+        };
+
+        params.add(item.getId());
+        params.add(type.name());
+        params.add(item.getTitle());
+        params.add(item.getArtistName());
+        params.add(item.getImageUrl());
+        params.add(item.getReleaseDate());
+        params.add(item.getItunesUrl());
+        params.add(item.getPreviewUrl());
+        params.add(genre);
+        params.add(label);
+        params.add(duration);
+        params.add(trackNumber);
+        params.add(thumbnailUrl);
+    }
+}
@@ -0,0 +1,59 @@
+package com.resonance.repository;
+
+import com.resonance.dto.media.MediaResponse;
+import com.resonance.entities.enums.MediaType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only media queries that project rows straight into {@link MediaResponse},
+ * without hydrating entities into the persistence context.
+ * <p>
+ * Responses carry the same fields as the entity mappings in
+ * {@link com.resonance.mapper.MediaMapper}, except the description, which list
+ * views never show.
+ */
+public interface MediaReadOperations {
+
+    /**
+     * Stored rating of a media row.
+     *
+     * @param averageRating the average rating, or null if nobody rated it
+     * @param ratingCount   the number of ratings
+     */
+    record StoredRating(Double averageRating, int ratingCount) {
+    }
+
+    /**
+     * Search the local catalog by title or artist name (case-insensitive substring match).
+     * Used as a fallback when the iTunes API is unavailable.
+     *
+     * @param type  media type to search
+     * @param query the search term
+     * @param limit maximum number of results, most recently cached first
+     * @return matching media
+     */
+    List<MediaResponse> searchResponses(MediaType type, String query, int limit);
+
+    /**
+     * Sample preview-capable tracks: a run of rows starting at a random point of the
+     * precomputed {@code sample_key} order, served by a partial index range scan.
+     *
+     * @param genre lower-case genre name, or null for all genres
+     * @param pivot start of the run, uniform in [0, 1)
+     * @param limit maximum number of tracks
+     * @return tracks with a preview URL, in sample key order
+     */
+    List<MediaResponse> samplePreviewTrackResponses(String genre, double pivot, int limit);
+
+    /**
+     * Read the stored ratings of several media of one type in a single query.
+     *
+     * @param type media type of the rows
+     * @param ids  media IDs
+     * @return ratings keyed by ID; IDs not stored with that type are absent
+     */
+    Map<String, StoredRating> findRatings(MediaType type, Collection<String> ids);
+}
@@ -0,0 +1,107 @@
+package com.resonance.repository;
+
+import com.resonance.dto.media.MediaResponse;
+import com.resonance.entities.enums.MediaType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link JdbcClient} queries for {@link MediaReadOperations}.
+ * <p>
+ * Each row is typed by the discriminator column; fields a type does not expose
+ * (an album's or artist's preview, an artist's release date) are left null, as
+ * the entity mappings do.
+ */
+@RequiredArgsConstructor
+class MediaReadOperationsImpl implements MediaReadOperations {
+
+    private static final String COLUMNS = """
+            id, type, title, artist_name, image_url, release_date, itunes_url,
+            preview_url, genre, average_rating, rating_count
+            """;
+
+    private static final RowMapper<MediaResponse> RESPONSE = (rs, _) -> {
+        MediaType type = MediaType.valueOf(rs.getString("type"));
+        BigDecimal rating = rs.getBigDecimal("average_rating");
+        return MediaResponse.builder()
+                .id(rs.getString("id"))
+                .type(type)
+                .title(rs.getString("title"))
+                .artistName(rs.getString("artist_name"))
+                .imageUrl(rs.getString("image_url"))
+                .releaseDate(type != MediaType.ARTIST ? rs.getString("release_date") : null)
+                .itunesUrl(rs.getString("itunes_url"))
+                .previewUrl(type == MediaType.TRACK ? rs.getString("preview_url") : null)
+                .genre(rs.getString("genre"))
+                .averageRating(rating != null ? rating.doubleValue() : null)
+                .ratingCount(rs.getInt("rating_count"))
+                .build();
+    };
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    public List<MediaResponse> searchResponses(MediaType type, String query, int limit) {
+        return jdbcClient.sql("select " + COLUMNS + """
+                        from media
+                        where type = :type
+                          and (lower(title) like '%' || lower(:query) || '%'
+                               or lower(artist_name) like '%' || lower(:query) || '%')
+                        order by cached_at desc
+                        limit :limit
+                        """)
+                .param("type", type.name())
+                .param("query", query)
+                .param("limit", limit)
+                .query(RESPONSE)
+                .list();
+    }
+
+    @Override
+    public List<MediaResponse> samplePreviewTrackResponses(String genre, double pivot, int limit) {
+        JdbcClient.StatementSpec statement = jdbcClient.sql("select " + COLUMNS + """
+                        from media
+                        where type = 'TRACK' and preview_url is not null
+                          %s
+                          and sample_key >= :pivot
+                        order by sample_key
+                        limit :limit
+                        """.formatted(genre != null ? "and lower(genre) = :genre" : ""))
+                .param("pivot", pivot)
+                .param("limit", limit);
+        if (genre != null) {
+            statement = statement.param("genre", genre);
+        }
+        return statement.query(RESPONSE).list();
+    }
+
+    @Override
+    public Map<String, StoredRating> findRatings(MediaType type, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, StoredRating> ratings = new HashMap<>();
+        jdbcClient.sql("""
+                        select id, average_rating, rating_count from media
+                        where type = :type and id in (:ids)
+                        """)
+                .param("type", type.name())
+                .param("ids", List.copyOf(ids))
+                .query(rs -> {
+                    BigDecimal rating = rs.getBigDecimal("average_rating");
+                    ratings.put(rs.getString("id"), new StoredRating(
+                            rating != null ? rating.doubleValue() : null,
+                            rs.getInt("rating_count")
+                    ));
+                });
+        return ratings;
+    }
+}
@@ -1,18 +1,16 @@
 package com.resonance.repository;
 
 import com.resonance.entities.Media;
+import com.resonance.entities.enums.MediaType;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
-
-public interface MediaRepository extends JpaRepository<Media, String> {
+public interface MediaRepository extends JpaRepository<Media, String>, MediaBulkOperations, MediaReadOperations {
 
     /**
-     * Batch fetch media entities by their IDs.
-     * Used for eager caching to check which entities already exist in the database.
+     * Count media of a type that has an audio preview.
      *
-     * @param ids list of iTunes IDs to lookup
-     * @return list of existing Media entities
+     * @param type media type, typically TRACK
+     * @return number of Media entities with a non-null preview URL
      */
-    List<Media> findAllByIdIn(List<String> ids);
-}
\ No newline at end of file
+    long countByTypeAndPreviewUrlIsNotNull(MediaType type);
+}
@@ -0,0 +1,258 @@
+package com.resonance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resonance.entities.Media;
+import com.resonance.entities.enums.MediaType;
+import com.resonance.external.itunes.ITunesClient;
+import com.resonance.external.itunes.ITunesEntityMapper;
+import com.resonance.external.itunes.ITunesPriority;
+import com.resonance.external.itunes.ITunesResponse;
+import com.resonance.external.itunes.ITunesResult;
+import com.resonance.repository.MediaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background refresh of catalog entries whose metadata is older than the maximum age.
+ * <p>
+ * Each run scans a window of stale rows in {@code (cached_at, id)} keyset order,
+ * stalest first, and refreshes the most frequently accessed of them through
+ * multi-ID iTunes lookups at {@link ITunesPriority#BACKGROUND}, within a per-run
+ * lookup budget. Changes are written with one batched update per lookup, which also
+ * bumps {@code cached_at}; entries iTunes no longer knows only get {@code cached_at}
+ * bumped, so they do not hold the front of the queue. The scan resumes after the
+ * last window on the next run and starts over once it reaches the end.
+ * <p>
+ * Access frequency is counted in memory from media lookups; entries nobody asked
+ * for recently are refreshed in keyset order.
+ */
+@Slf4j
+@Component
+public class CatalogRefresher {
+
+    /**
+     * iTunes accepts at most this many IDs per lookup.
+     */
+    private static final int MAX_LOOKUP_IDS = 200;
+
+    private static final StaleEntry START = new StaleEntry("", null, Instant.EPOCH);
+
+    private record StaleEntry(String id, MediaType type, Instant cachedAt) {
+    }
+
+    private final JdbcClient jdbcClient;
+    private final MediaRepository mediaRepository;
+    private final ITunesClient iTunesClient;
+    private final ITunesEntityMapper iTunesEntityMapper;
+    private final MediaResponseCache responseCache;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final int maxLookups;
+    private final int scanSize;
+    private final Cache<String, LongAdder> accesses;
+    private final Counter refreshed;
+    private final Counter missing;
+    private final Counter answeredLookups;
+    private final Counter shedLookups;
+    private final Timer staleness;
+
+    private StaleEntry cursor = START;
+
+    public CatalogRefresher(
+            JdbcClient jdbcClient,
+            MediaRepository mediaRepository,
+            ITunesClient iTunesClient,
+            ITunesEntityMapper iTunesEntityMapper,
+            MediaResponseCache responseCache,
+            @Value("${catalog.refresh.enabled:true}") boolean enabled,
+            @Value("${catalog.refresh.max-age:7d}") Duration maxAge,
+            @Value("${catalog.refresh.batch-size:100}") int batchSize,
+            @Value("${catalog.refresh.max-lookups-per-run:2}") int maxLookups,
+            @Value("${catalog.refresh.scan-factor:4}") int scanFactor,
+            @Value("${catalog.refresh.tracked-ids:100000}") long trackedIds,
+            @Value("${catalog.refresh.access-window:1d}") Duration accessWindow,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcClient = jdbcClient;
+        this.mediaRepository = mediaRepository;
+        this.iTunesClient = iTunesClient;
+        this.iTunesEntityMapper = iTunesEntityMapper;
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.batchSize = Math.min(batchSize, MAX_LOOKUP_IDS);
+        this.maxLookups = maxLookups;
+        this.scanSize = this.batchSize * maxLookups * scanFactor;
+        this.accesses = Caffeine.newBuilder()
+                .maximumSize(trackedIds)
+                .expireAfterAccess(accessWindow)
+                .build();
+
+        this.refreshed = itemCounter(meterRegistry, "refreshed");
+        this.missing = itemCounter(meterRegistry, "missing");
+        this.answeredLookups = lookupCounter(meterRegistry, "answered");
+        this.shedLookups = lookupCounter(meterRegistry, "shed");
+        this.staleness = Timer.builder("catalog.refresh.staleness")
+                .description("Age of catalog entries when they are refreshed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a lookup of the given media, to prioritize its refresh.
+     */
+    public void recordAccess(String id) {
+        if (enabled && id != null) {
+            accesses.get(id, _ -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Refreshes the most accessed entries of the next window of stale rows.
+     * Runs off the request path.
+     */
+    @Scheduled(
+            fixedDelayString = "${catalog.refresh.interval:1m}",
+            initialDelayString = "${catalog.refresh.initial-delay:1m}"
+    )
+    public void refreshStalest() {
+        if (!enabled) {
+            return;
+        }
+
+        List<StaleEntry> window = scanStale(Instant.now().minus(maxAge));
+        if (window.isEmpty()) {
+            cursor = START;
+            return;
+        }
+
+        // Stable sort: equally accessed entries keep their stalest-first order
+        List<StaleEntry> selected = window.stream()
+                .sorted(Comparator.comparingLong(this::accessCount).reversed())
+                .limit((long) batchSize * maxLookups)
+                .toList();
+        for (int from = 0; from < selected.size(); from += batchSize) {
+            if (!refresh(selected.subList(from, Math.min(from + batchSize, selected.size())))) {
+                // Out of quota: scan the same window again next run
+                return;
+            }
+        }
+        cursor = window.size() < scanSize ? START : window.getLast();
+    }
+
+    private List<StaleEntry> scanStale(Instant staleBefore) {
+        return jdbcClient.sql("""
+                        select id, type, cached_at from media
+                        where cached_at < :staleBefore
+                          and (cached_at, id) > (:afterCachedAt, :afterId)
+                        order by cached_at, id
+                        limit :limit
+                        """)
+                .param("staleBefore", Timestamp.from(staleBefore))
+                .param("afterCachedAt", Timestamp.from(cursor.cachedAt()))
+                .param("afterId", cursor.id())
+                .param("limit", scanSize)
+                .query((rs, _) -> new StaleEntry(
+                        rs.getString("id"),
+                        MediaType.valueOf(rs.getString("type")),
+                        rs.getTimestamp("cached_at").toInstant()
+                ))
+                .list();
+    }
+
+    /**
+     * Looks one batch up and writes it back.
+     *
+     * @return false if the lookup was shed or failed
+     */
+    private boolean refresh(List<StaleEntry> batch) {
+        Map<String, StaleEntry> entries = new LinkedHashMap<>();
+        List<Long> itunesIds = new ArrayList<>(batch.size());
+        for (StaleEntry entry : batch) {
+            entries.put(entry.id(), entry);
+            try {
+                itunesIds.add(Long.parseLong(entry.id()));
+            } catch (NumberFormatException e) {
+                log.debug("Cannot refresh non-iTunes media ID: {}", entry.id());
+            }
+        }
+
+        ITunesResponse response = iTunesClient.lookupByIds(itunesIds, ITunesPriority.BACKGROUND);
+        if (response.isUnavailable()) {
+            shedLookups.increment();
+            log.debug("Catalog refresh lookup for {} ID(s) shed or failed", itunesIds.size());
+            return false;
+        }
+        answeredLookups.increment();
+
+        Map<String, Media> fresh = new HashMap<>();
+        for (ITunesResult result : response.results() != null ? response.results() : List.<ITunesResult>of()) {
+            Media media = iTunesEntityMapper.toEntity(result);
+            StaleEntry entry = media != null ? entries.get(media.getId()) : null;
+            if (entry != null && entry.type() == typeOf(result)) {
+                fresh.putIfAbsent(media.getId(), media);
+            }
+        }
+        List<String> unmatched = entries.keySet().stream()
+                .filter(id -> !fresh.containsKey(id))
+                .toList();
+
+        Instant fetchedAt = Instant.now();
+        int updated = mediaRepository.refreshAll(List.copyOf(fresh.values()), fetchedAt);
+        mediaRepository.touchAll(unmatched, fetchedAt);
+        responseCache.invalidate(fresh.keySet());
+
+        refreshed.increment(updated);
+        missing.increment(unmatched.size());
+        for (StaleEntry entry : batch) {
+            staleness.record(Duration.between(entry.cachedAt(), fetchedAt));
+        }
+        log.debug("Refreshed {} catalog entries, {} without a matching iTunes result", updated, unmatched.size());
+        return true;
+    }
+
+    private long accessCount(StaleEntry entry) {
+        LongAdder count = accesses.getIfPresent(entry.id());
+        return count != null ? count.sum() : 0;
+    }
+
+    private static MediaType typeOf(ITunesResult result) {
+        return result.isCollection() ? MediaType.ALBUM
+                : result.isTrack() ? MediaType.TRACK
+                : result.isArtist() ? MediaType.ARTIST
+                : null;
+    }
+
+    private static Counter itemCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("catalog.refresh.items")
+                .description("Stale catalog entries processed by outcome: refreshed from iTunes or without a matching result")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("catalog.refresh.lookups")
+                .description("Catalog refresh lookups by outcome: answered, or shed or failed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
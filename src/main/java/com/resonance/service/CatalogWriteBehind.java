@@ -0,0 +1,209 @@
+package com.resonance.service;
+
+import com.resonance.external.itunes.ITunesResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded write-behind buffer for eager catalog caching.
+ * <p>
+ * Request threads hand over iTunes results and return at once. Pending results are
+ * keyed by media type and ID, so the same item seen by many requests is written once
+ * with its latest payload. A few writer threads flush a batch whenever enough results
+ * are pending or the flush interval has passed. When the buffer is full, new results
+ * are dropped rather than blocking the caller; they are cached again the next time
+ * they are seen.
+ */
+@Slf4j
+@Component
+public class CatalogWriteBehind {
+
+    private final MediaService mediaService;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Map<String, ITunesResult> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final ExecutorService writers;
+    private volatile boolean running = true;
+
+    private final Counter accepted;
+    private final Counter coalesced;
+    private final Counter shed;
+    private final Counter failed;
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+
+    public CatalogWriteBehind(
+            MediaService mediaService,
+            @Value("${catalog.write-behind.capacity:10000}") int capacity,
+            @Value("${catalog.write-behind.batch-size:500}") int batchSize,
+            @Value("${catalog.write-behind.flush-interval:250ms}") Duration flushInterval,
+            @Value("${catalog.write-behind.writers:2}") int writerCount,
+            MeterRegistry meterRegistry
+    ) {
+        this.mediaService = mediaService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+
+        Gauge.builder("catalog.write-behind.queue", size, AtomicInteger::get)
+                .description("iTunes results waiting to be written to the catalog")
+                .register(meterRegistry);
+        this.accepted = resultCounter(meterRegistry, "accepted");
+        this.coalesced = resultCounter(meterRegistry, "coalesced");
+        this.shed = resultCounter(meterRegistry, "shed");
+        this.failed = Counter.builder("catalog.write-behind.failures")
+                .description("Catalog write-behind batches that failed to be written")
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("catalog.write-behind.flush.size")
+                .description("Results written per catalog flush")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("catalog.write-behind.flush")
+                .description("Time spent writing one catalog batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.writers = Executors.newFixedThreadPool(writerCount, Thread.ofPlatform()
+                .name("catalog-writer-", 0)
+                .daemon()
+                .factory());
+        for (int i = 0; i < writerCount; i++) {
+            writers.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Queues results for writing. Never blocks.
+     *
+     * @param results iTunes results of any type
+     */
+    public void submit(List<ITunesResult> results) {
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+        for (ITunesResult result : results) {
+            Long id = result != null ? result.primaryId() : null;
+            if (id == null) {
+                continue;
+            }
+            String key = result.wrapperType() + ":" + id;
+            if (pending.replace(key, result) != null) {
+                coalesced.increment();
+            } else if (size.get() >= capacity) {
+                shed.increment();
+            } else if (pending.putIfAbsent(key, result) == null) {
+                size.incrementAndGet();
+                accepted.increment();
+            } else {
+                pending.replace(key, result);
+                coalesced.increment();
+            }
+        }
+        if (size.get() >= batchSize) {
+            signal();
+        }
+    }
+
+    public int pendingCount() {
+        return size.get();
+    }
+
+    /**
+     * Writes what is pending before shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        signal();
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Catalog writers did not stop in time, {} result(s) not written", size.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        while (running || size.get() > 0) {
+            lock.lock();
+            try {
+                if (running && size.get() < batchSize) {
+                    batchReady.awaitNanos(flushIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            flush();
+        }
+    }
+
+    private void flush() {
+        List<ITunesResult> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+        Iterator<String> keys = pending.keySet().iterator();
+        while (batch.size() < batchSize && keys.hasNext()) {
+            ITunesResult result = pending.remove(keys.next());
+            if (result != null) {
+                size.decrementAndGet();
+                batch.add(result);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        flushSize.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            mediaService.syncAll(batch);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to write {} iTunes result(s) to the catalog: {}", batch.size(), e.getMessage());
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            batchReady.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("catalog.write-behind.results")
+                .description("iTunes results handed to the catalog write-behind, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
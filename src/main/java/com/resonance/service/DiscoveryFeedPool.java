@@ -0,0 +1,283 @@
+package com.resonance.service;
+
+import com.resonance.dto.media.MediaResponse;
+import com.resonance.external.itunes.ITunesClient;
+import com.resonance.external.itunes.ITunesMediaMapper;
+import com.resonance.external.itunes.ITunesPriority;
+import com.resonance.external.itunes.ITunesResponse;
+import com.resonance.external.itunes.ITunesResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory pool of preview-capable tracks that tops up the discovery feed while the
+ * local catalog is thin.
+ * <p>
+ * A background warmer refreshes the stalest keyword on every tick at
+ * {@link ITunesPriority#FEED} priority, so the pool stays within the upstream quota
+ * and feed requests never call iTunes. Once the catalog holds enough preview-capable
+ * tracks the warmer stands down and the pool keeps its last contents. Each keyword keeps a deduplicated ring of its
+ * most recent tracks; readers get an immutable, deduplicated snapshot of all rings.
+ * <p>
+ * The keyword list comes from {@code feed.keywords} and can be replaced at runtime
+ * (see {@code FeedPoolActuatorEndpoint}); retained keywords keep their tracks and new
+ * ones are filled first.
+ */
+@Slf4j
+@Component
+public class DiscoveryFeedPool {
+
+    /**
+     * State of one keyword, as exposed for inspection.
+     */
+    public record KeywordStatus(String keyword, int tracks, Long ageSeconds) {
+    }
+
+    private final ITunesClient iTunesClient;
+    private final ITunesMediaMapper iTunesMediaMapper;
+    private final MediaService mediaService;
+    private final CatalogWriteBehind catalogWriter;
+    private final MeterRegistry meterRegistry;
+    private final int perKeywordCapacity;
+    private final int fetchLimit;
+    private final long catalogThreshold;
+    private final Map<String, KeywordRing> rings = new ConcurrentHashMap<>();
+    private final Map<String, Meter> freshnessGauges = new ConcurrentHashMap<>();
+    private final Counter refills;
+    private final Counter failedRefills;
+
+    private volatile List<String> keywords;
+    private volatile List<MediaResponse> snapshot = List.of();
+
+    public DiscoveryFeedPool(
+            ITunesClient iTunesClient,
+            ITunesMediaMapper iTunesMediaMapper,
+            MediaService mediaService,
+            CatalogWriteBehind catalogWriter,
+            @Value("${feed.keywords}") List<String> keywords,
+            @Value("${feed.pool.per-keyword-capacity:100}") int perKeywordCapacity,
+            @Value("${feed.pool.fetch-limit:50}") int fetchLimit,
+            @Value("${feed.pool.catalog-threshold:5000}") long catalogThreshold,
+            MeterRegistry meterRegistry
+    ) {
+        this.iTunesClient = iTunesClient;
+        this.iTunesMediaMapper = iTunesMediaMapper;
+        this.mediaService = mediaService;
+        this.catalogWriter = catalogWriter;
+        this.meterRegistry = meterRegistry;
+        this.perKeywordCapacity = perKeywordCapacity;
+        this.fetchLimit = fetchLimit;
+        this.catalogThreshold = catalogThreshold;
+        updateKeywords(keywords);
+
+        Gauge.builder("feed.pool.size", this, pool -> pool.snapshot.size())
+                .description("Distinct tracks available to the discovery feed")
+                .register(meterRegistry);
+        Gauge.builder("feed.pool.refill.lag", this, DiscoveryFeedPool::refillLagSeconds)
+                .description("Age in seconds of the stalest keyword (never-filled keywords count from startup)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.refills = refillCounter(meterRegistry, "success");
+        this.failedRefills = refillCounter(meterRegistry, "empty");
+    }
+
+    /**
+     * Returns every pooled track, deduplicated across keywords. The list is immutable
+     * and shared; callers must copy it before reordering.
+     */
+    public List<MediaResponse> snapshot() {
+        return snapshot;
+    }
+
+    public List<String> keywords() {
+        return keywords;
+    }
+
+    /**
+     * Replaces the keyword list. Tracks of removed keywords leave the pool at once.
+     *
+     * @param newKeywords the new keywords; blanks and duplicates are ignored
+     */
+    public synchronized void updateKeywords(List<String> newKeywords) {
+        List<String> cleaned = newKeywords.stream()
+                .filter(Objects::nonNull)
+                .map(String::strip)
+                .filter(keyword -> !keyword.isEmpty())
+                .distinct()
+                .toList();
+        if (cleaned.isEmpty()) {
+            throw new IllegalArgumentException("At least one feed keyword is required");
+        }
+
+        rings.keySet().retainAll(cleaned);
+        freshnessGauges.entrySet().removeIf(entry -> {
+            if (!cleaned.contains(entry.getKey())) {
+                meterRegistry.remove(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+        for (String keyword : cleaned) {
+            rings.computeIfAbsent(keyword, _ -> new KeywordRing(perKeywordCapacity));
+            freshnessGauges.computeIfAbsent(keyword, k -> Gauge.builder("feed.pool.keyword.age", this, pool -> pool.ageSeconds(k))
+                    .description("Seconds since the keyword's tracks were last refreshed")
+                    .baseUnit("seconds")
+                    .tag("keyword", k)
+                    .register(meterRegistry));
+        }
+        this.keywords = cleaned;
+        rebuildSnapshot();
+        log.info("Discovery feed keywords set to {}", cleaned);
+    }
+
+    /**
+     * Refreshes the stalest keyword while the local catalog is below the threshold.
+     * Runs off the request path.
+     */
+    @Scheduled(
+            fixedDelayString = "${feed.pool.refill-interval:20s}",
+            initialDelayString = "${feed.pool.initial-delay:0s}"
+    )
+    public void refillNext() {
+        if (mediaService.countPreviewTracks() >= catalogThreshold) {
+            return;
+        }
+        rings.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().refreshedAt()))
+                .ifPresent(entry -> refill(entry.getKey(), entry.getValue()));
+    }
+
+    public List<KeywordStatus> status() {
+        return keywords.stream()
+                .map(keyword -> {
+                    KeywordRing ring = rings.get(keyword);
+                    long refreshedAt = ring != null ? ring.refreshedAt() : 0;
+                    return new KeywordStatus(
+                            keyword,
+                            ring != null ? ring.size() : 0,
+                            refreshedAt > 0 ? Duration.ofNanos(System.nanoTime() - refreshedAt).toSeconds() : null
+                    );
+                })
+                .toList();
+    }
+
+    private void refill(String keyword, KeywordRing ring) {
+        ITunesResponse response = iTunesClient.searchTracks(keyword, fetchLimit, ITunesPriority.FEED);
+        List<ITunesResult> previewable = response.results() == null ? List.of() : response.results().stream()
+                .filter(result -> result.trackId() != null && result.previewUrl() != null)
+                .toList();
+        // Mark the attempt even when empty, so an unproductive keyword does not starve the others
+        ring.markRefreshed();
+        if (previewable.isEmpty()) {
+            failedRefills.increment();
+            log.debug("Feed refill for '{}' returned no previewable tracks", keyword);
+            return;
+        }
+
+        // Eager caching of the discovered tracks
+        catalogWriter.submit(previewable);
+
+        ring.addAll(iTunesMediaMapper.toTrackResponses(previewable));
+        refills.increment();
+        rebuildSnapshot();
+        log.debug("Refilled feed pool for '{}' with {} track(s)", keyword, previewable.size());
+    }
+
+    private synchronized void rebuildSnapshot() {
+        Map<String, MediaResponse> unique = new LinkedHashMap<>();
+        for (String keyword : keywords) {
+            KeywordRing ring = rings.get(keyword);
+            if (ring != null) {
+                ring.tracks().forEach(track -> unique.putIfAbsent(track.id(), track));
+            }
+        }
+        snapshot = List.copyOf(unique.values());
+    }
+
+    private double ageSeconds(String keyword) {
+        KeywordRing ring = rings.get(keyword);
+        if (ring == null || ring.refreshedAt() == 0) {
+            return Double.NaN;
+        }
+        return (System.nanoTime() - ring.refreshedAt()) / 1e9;
+    }
+
+    private double refillLagSeconds() {
+        long now = System.nanoTime();
+        return rings.values().stream()
+                .mapToLong(ring -> ring.refreshedAt() == 0 ? ring.createdAt() : ring.refreshedAt())
+                .map(at -> now - at)
+                .max()
+                .orElse(0) / 1e9;
+    }
+
+    private static Counter refillCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("feed.pool.refills")
+                .description("Discovery feed pool refills by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deduplicated ring of a keyword's most recent tracks: re-adding a track moves it
+     * to the newest position, and the oldest tracks are dropped past capacity.
+     */
+    private static final class KeywordRing {
+
+        private final int capacity;
+        private final long createdAt = System.nanoTime();
+        private final LinkedHashMap<String, MediaResponse> tracks = new LinkedHashMap<>();
+        private volatile long refreshedAt;
+
+        KeywordRing(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void addAll(List<MediaResponse> newTracks) {
+            for (MediaResponse track : newTracks) {
+                tracks.remove(track.id());
+                tracks.put(track.id(), track);
+            }
+            var iterator = tracks.entrySet().iterator();
+            while (tracks.size() > capacity && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        synchronized List<MediaResponse> tracks() {
+            return new ArrayList<>(tracks.values());
+        }
+
+        synchronized int size() {
+            return tracks.size();
+        }
+
+        void markRefreshed() {
+            refreshedAt = System.nanoTime();
+        }
+
+        long refreshedAt() {
+            return refreshedAt;
+        }
+
+        long createdAt() {
+            return createdAt;
+        }
+    }
+}
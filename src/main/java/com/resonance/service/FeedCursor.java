@@ -0,0 +1,46 @@
+package com.resonance.service;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Position within a discovery feed session, handed to clients as an opaque token.
+ * <p>
+ * The seed identifies the session and fixes its ordering; the position is the
+ * number of tracks already served.
+ *
+ * @param seed     session seed
+ * @param position index of the next track to serve
+ */
+record FeedCursor(long seed, int position) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES;
+
+    FeedCursor {
+        if (position < 0) {
+            throw new IllegalArgumentException("Invalid feed cursor");
+        }
+    }
+
+    String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).putLong(seed).putInt(position);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    static FeedCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid feed cursor", e);
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Invalid feed cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new FeedCursor(buffer.getLong(), buffer.getInt());
+    }
+}
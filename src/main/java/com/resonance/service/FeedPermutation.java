@@ -0,0 +1,79 @@
+package com.resonance.service;
+
+import java.util.SplittableRandom;
+
+/**
+ * Pseudo-random permutation of {@code [0, n)} keyed by a seed, computed per index
+ * without materializing the order.
+ * <p>
+ * A balanced Feistel network shuffles the smallest even-bit domain that holds
+ * {@code n}; indexes that land outside {@code [0, n)} are encrypted again (cycle
+ * walking) until they fall inside. Each Feistel round is a bijection, so the result
+ * is a permutation whatever the keys, and the domain is less than four times
+ * {@code n}, so a lookup takes a few rounds on average. Different seeds give
+ * unrelated orders, unlike an affine walk {@code (a + i * b) mod n}.
+ */
+final class FeedPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final int size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    FeedPermutation(long seed, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative permutation size");
+        }
+        this.size = size;
+        int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(size - 1, 1)));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Returns the element at position {@code index} of the permuted order.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is outside {@code [0, size)}
+     */
+    int apply(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        long value = index;
+        do {
+            value = encrypt(value);
+        } while (value >= size);
+        return (int) value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long key : roundKeys) {
+            long mixed = left ^ round(right, key);
+            left = right;
+            right = mixed;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /**
+     * SplitMix64 finalizer over the half block and the round key, truncated to a half block.
+     */
+    private long round(long half, long key) {
+        long z = (half + key) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) & halfMask;
+    }
+}
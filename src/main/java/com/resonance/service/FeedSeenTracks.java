@@ -0,0 +1,180 @@
+package com.resonance.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user record of recently served feed tracks, so authenticated users are not
+ * shown the same track again within a window of recent pages.
+ * <p>
+ * Each user has a fixed-size {@link RotatingBloomFilter} over numeric iTunes IDs.
+ * Filters live in a bounded cache; changed filters are written to {@code user_feed_seen}
+ * periodically and on eviction, and loaded from it on first use, so they survive
+ * restarts. Persistence is best-effort: database errors only cost repeats.
+ */
+@Slf4j
+@Component
+public class FeedSeenTracks {
+
+    private final JdbcClient jdbcClient;
+    private final int bits;
+    private final int hashes;
+    private final int generationSize;
+    private final LoadingCache<String, RotatingBloomFilter> filters;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Counter filtered;
+
+    public FeedSeenTracks(
+            JdbcClient jdbcClient,
+            @Value("${feed.seen.bits:8192}") int bits,
+            @Value("${feed.seen.hashes:4}") int hashes,
+            @Value("${feed.seen.generation-size:500}") int generationSize,
+            @Value("${feed.seen.max-users:50000}") long maxUsers,
+            @Value("${feed.seen.idle-ttl:1h}") Duration idleTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.jdbcClient = jdbcClient;
+        this.bits = bits;
+        this.hashes = hashes;
+        this.generationSize = generationSize;
+        this.filters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTtl)
+                .removalListener((String username, RotatingBloomFilter filter, RemovalCause cause) -> {
+                    if (username != null && filter != null && cause.wasEvicted() && dirty.remove(username)) {
+                        persist(username, filter);
+                    }
+                })
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, filters, "feed-seen");
+
+        Gauge.builder("feed.seen.memory", this, seen -> seen.filters.estimatedSize() * (double) seen.filterBytes())
+                .description("Heap held by per-user seen-track filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("feed.seen.filter.size", this, FeedSeenTracks::filterBytes)
+                .description("Size of one user's seen-track filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.filtered = Counter.builder("feed.seen.filtered")
+                .description("Feed candidates skipped because the user has probably seen them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the track has probably been served to the user recently.
+     *
+     * @param username the authenticated user's name
+     * @param trackId  the track's iTunes ID
+     * @return true if seen, with a small false-positive rate
+     */
+    public boolean hasSeen(String username, String trackId) {
+        long id = parseId(trackId);
+        if (id < 0 || !filters.get(username).mightContain(id)) {
+            return false;
+        }
+        filtered.increment();
+        return true;
+    }
+
+    /**
+     * Records tracks as served to the user.
+     *
+     * @param username the authenticated user's name
+     * @param trackIds iTunes IDs of the served tracks
+     */
+    public void markSeen(String username, Collection<String> trackIds) {
+        RotatingBloomFilter filter = filters.get(username);
+        boolean changed = false;
+        for (String trackId : trackIds) {
+            long id = parseId(trackId);
+            if (id >= 0) {
+                filter.add(id);
+                changed = true;
+            }
+        }
+        if (changed) {
+            dirty.add(username);
+        }
+    }
+
+    /**
+     * Writes filters changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${feed.seen.flush-interval:30s}")
+    public void flush() {
+        for (String username : List.copyOf(dirty)) {
+            RotatingBloomFilter filter = filters.getIfPresent(username);
+            if (dirty.remove(username) && filter != null) {
+                persist(username, filter);
+            }
+        }
+    }
+
+    private RotatingBloomFilter load(String username) {
+        try {
+            byte[] stored = jdbcClient.sql("""
+                            select s.filter from user_feed_seen s
+                            join users u on u.id = s.user_id
+                            where u.username = :username
+                            """)
+                    .param("username", username)
+                    .query(byte[].class)
+                    .optional()
+                    .orElse(null);
+            return RotatingBloomFilter.fromBytes(stored, bits, hashes, generationSize);
+        } catch (DataAccessException e) {
+            log.warn("Could not load seen-track filter for {}: {}", username, e.getMessage());
+            return new RotatingBloomFilter(bits, hashes, generationSize);
+        }
+    }
+
+    private void persist(String username, RotatingBloomFilter filter) {
+        try {
+            jdbcClient.sql("""
+                            insert into user_feed_seen (user_id, filter, updated_at)
+                            select id, :filter, now() from users where username = :username
+                            on conflict (user_id) do update
+                            set filter = excluded.filter, updated_at = excluded.updated_at
+                            """)
+                    .param("filter", filter.toBytes())
+                    .param("username", username)
+                    .update();
+        } catch (DataAccessException e) {
+            log.warn("Could not persist seen-track filter for {}: {}", username, e.getMessage());
+        }
+    }
+
+    private int filterBytes() {
+        return 2 * bits / Byte.SIZE;
+    }
+
+    /**
+     * iTunes IDs are numeric; anything else cannot be tracked and is never filtered.
+     */
+    private static long parseId(String trackId) {
+        try {
+            return trackId != null ? Long.parseLong(trackId) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,125 +1,215 @@
 package com.resonance.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.dto.media.SearchResponse;
-import com.resonance.external.itunes.ITunesClient;
-import com.resonance.external.itunes.ITunesMediaMapper;
-import com.resonance.external.itunes.ITunesResult;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 
 /**
  * Service for generating discovery feed content.
  * <p>
- * Implements eager caching: all feed results are persisted to the local
- * database before being returned, building the catalog as users browse.
- * <p>
  * The feed returns tracks (songs) with 30-second audio previews, enabling
  * TikTok-style audio playback in the frontend.
+ * <p>
+ * Candidates are sampled from preview-capable tracks already in the local catalog,
+ * optionally restricted to a genre. Only when the catalog is too thin to fill a
+ * session are they topped up from {@link DiscoveryFeedPool}, which is kept warm in the
+ * background, so a feed request never calls iTunes. One sample per genre is shared by
+ * every session started while it is current and replaced in the background after the
+ * refresh interval, so starting a session does not read the catalog.
+ * <p>
+ * Each feed session fixes its candidate set when it starts and walks a
+ * {@link FeedPermutation} of it keyed by the session seed. The seed and position
+ * travel in the response cursor, so following cursors yields every candidate exactly
+ * once, and each page costs only its own size. A cursor whose session has expired is
+ * rejected rather than replayed over a different candidate set, which could repeat
+ * tracks. For authenticated users, tracks recorded in {@link FeedSeenTracks} are
+ * passed over as well, across sessions.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FeedService {
 
+    private static final int STREAM_PREFETCH_PAGES = 2;
+
     /**
-     * Curated list of keywords for discovery feed.
-     * These keywords are designed to return diverse, popular music content.
+     * Candidate cache key for the unrestricted feed.
      */
-    private static final List<String> DISCOVERY_KEYWORDS = List.of(
-            "Top Hits 2025", "Top Hits 2024", "Top Hits 2023", "Viral Hits",
-            "Pop 2025", "Rock Classics", "Hip Hop Essentials",
-            "Indie Folk", "Electronic 2024", "R&B Soul",
-            "Jazz Classics", "Country Hits", "Latin Pop",
-            "Alternative 2000s", "Classical Essentials", "Reggae Vibes",
-            "Metal", "K-Pop", "French Pop",
-            "Acoustic Covers", "Chill Lo-Fi", "Party Anthems",
-            "Throwback 2010s", "90s Hits", "80s Pop"
-    );
-
-    private static final int MAX_ITUNES_LIMIT = 200; // iTunes API max
-
-    private final ITunesClient iTunesClient;
-    private final ITunesMediaMapper iTunesMediaMapper;
+    private static final String ALL_GENRES = "";
+
+    private record SessionKey(long seed, String genre) {
+    }
+
+    private final DiscoveryFeedPool feedPool;
     private final MediaService mediaService;
-    private final SecureRandom random = new SecureRandom();
+    private final FeedSeenTracks seenTracks;
+    private final Scheduler blockingScheduler;
+    private final int sampleSize;
+    private final LoadingCache<String, List<MediaResponse>> candidates;
+    private final Cache<SessionKey, FeedSession> sessions;
+
+    public FeedService(
+            DiscoveryFeedPool feedPool,
+            MediaService mediaService,
+            FeedSeenTracks seenTracks,
+            Scheduler blockingScheduler,
+            @Value("${feed.catalog.sample-size:500}") int sampleSize,
+            @Value("${feed.catalog.refresh-interval:5m}") Duration candidateRefresh,
+            @Value("${feed.catalog.idle-ttl:1h}") Duration candidateIdleTtl,
+            @Value("${feed.catalog.max-genres:200}") long maxGenres,
+            @Value("${feed.session.max-size:100000}") long maxSessions,
+            @Value("${feed.session.ttl:30m}") Duration sessionTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.feedPool = feedPool;
+        this.mediaService = mediaService;
+        this.seenTracks = seenTracks;
+        this.blockingScheduler = blockingScheduler;
+        this.sampleSize = sampleSize;
+        this.candidates = Caffeine.newBuilder()
+                .maximumSize(maxGenres)
+                .refreshAfterWrite(candidateRefresh)
+                .expireAfterAccess(candidateIdleTtl)
+                .executor(blockingScheduler::schedule)
+                .recordStats()
+                .build(this::loadCandidates);
+        CaffeineCacheMetrics.monitor(meterRegistry, candidates, "feed-candidates");
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(sessionTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "feed-sessions");
+    }
 
     /**
      * Generates a paginated discovery feed of tracks with audio previews.
      * Using tracks instead of albums ensures each item has a 30-second
      * audio preview URL for TikTok-style playback.
+     * <p>
+     * Without a cursor a new session starts at {@code page}; with one, the session
+     * continues where the cursor points and {@code page} is ignored.
      *
-     * @param page page number (0-indexed)
-     * @param size page size
-     * @return paginated SearchResponse with tracks including previewUrl
+     * @param page   page number (0-indexed) for a new session
+     * @param size   page size
+     * @param cursor cursor from a previous page, or null to start a new session
+     * @param genre  genre to restrict the feed to, or null for all genres; must be
+     *               repeated with the cursor
+     * @param viewer name of the authenticated user, or null for guests; tracks this
+     *               user was recently served are left out
+     * @return paginated SearchResponse with tracks including previewUrl, and the
+     * cursor of the next page unless the session is exhausted
+     * @throws IllegalArgumentException if the cursor is malformed, or its session has expired
      */
-    public SearchResponse<MediaResponse> getDiscoveryFeed(int page, int size) {
-        String keyword1 = getRandomKeyword();
-        String keyword2 = getRandomKeyword();
-        while (keyword2.equals(keyword1)) {
-            keyword2 = getRandomKeyword();
-        }
-
-        log.debug("Generating hybrid feed with keywords: '{}' & '{}'", keyword1, keyword2);
-
-        int batchSize = Math.min((size * 2), 50);
+    public SearchResponse<MediaResponse> getDiscoveryFeed(int page, int size, String cursor, String genre, String viewer) {
+        boolean resumed = cursor != null && !cursor.isBlank();
+        FeedCursor position = resumed
+                ? FeedCursor.decode(cursor)
+                : new FeedCursor(ThreadLocalRandom.current().nextLong(), Math.max(page, 0) * size);
 
-        List<ITunesResult> rawResults = new ArrayList<>();
-
-        try {
-            var response1 = iTunesClient.searchTracks(keyword1, batchSize);
-            if (response1.results() != null) rawResults.addAll(response1.results());
-
-            var response2 = iTunesClient.searchTracks(keyword2, batchSize);
-            if (response2.results() != null) rawResults.addAll(response2.results());
-
-        } catch (Exception e) {
-            log.error("Error fetching iTunes feed", e);
+        SessionKey key = new SessionKey(position.seed(), normalizeGenre(genre));
+        FeedSession session = resumed
+                ? sessions.getIfPresent(key)
+                : sessions.get(key, k -> FeedSession.of(k.seed(), candidates.get(k.genre())));
+        if (session == null) {
+            throw new IllegalArgumentException("Feed session expired, start a new one without a cursor");
         }
-
-        if (rawResults.isEmpty()) {
+        if (session.isEmpty()) {
+            // Nothing to serve yet: sample again on the next request instead of after the refresh interval
+            sessions.invalidate(key);
+            candidates.invalidate(key.genre());
             return buildEmptyResponse(page);
         }
 
-        // Deduplicate by track ID
-        List<ITunesResult> uniqueResults = new ArrayList<>(rawResults.stream()
-                .filter(r -> r.trackId() != null)
-                .collect(Collectors.toMap(
-                        ITunesResult::trackId,
-                        r -> r,
-                        (a, _) -> a
-                ))
-                .values());
-
-        // Sync to DB in background (eager caching)
-        mediaService.syncTracks(uniqueResults);
-
-        // Build responses from iTunes results to preserve previewUrl
-        List<MediaResponse> allResults = new ArrayList<>(iTunesMediaMapper.toTrackResponses(uniqueResults));
-
-        Collections.shuffle(allResults, random);
-        List<MediaResponse> pageContent = allResults.stream()
-                .limit(size)
-                .toList();
+        Slice slice = viewer != null
+                ? session.slice(position.position(), size, track -> seenTracks.hasSeen(viewer, track.id()))
+                : session.slice(position.position(), size, _ -> false);
+        List<MediaResponse> pageContent = slice.content();
+        if (viewer != null) {
+            seenTracks.markSeen(viewer, pageContent.stream().map(MediaResponse::id).toList());
+        }
+        FeedCursor next = new FeedCursor(position.seed(), slice.next());
+        int total = session.size();
 
         return SearchResponse.<MediaResponse>builder()
                 .content(pageContent)
-                .page(page)
+                .page(position.position() / size)
                 .size(pageContent.size())
-                .totalElements(MAX_ITUNES_LIMIT)
-                .totalPages(MAX_ITUNES_LIMIT / size)
+                .totalElements(total)
+                .totalPages((total + size - 1) / size)
+                .cursor(next.position() < total ? next.encode() : null)
                 .build();
     }
 
-    private String getRandomKeyword() {
-        return DISCOVERY_KEYWORDS.get(random.nextInt(DISCOVERY_KEYWORDS.size()));
+    /**
+     * Streams one feed session as individual tracks for infinite scroll over a single
+     * connection. Pages are read lazily as the client consumes tracks, keeping a couple
+     * of pages prefetched, and the stream completes when the session is exhausted.
+     *
+     * @param batchSize number of tracks read per page
+     * @param genre     genre to restrict the feed to, or null for all genres
+     * @param viewer    name of the authenticated user, or null for guests
+     * @return the session's tracks in feed order
+     */
+    public Flux<MediaResponse> streamDiscoveryFeed(int batchSize, String genre, String viewer) {
+        return nextPage(batchSize, null, genre, viewer)
+                .expand(page -> page.cursor() != null
+                        ? nextPage(batchSize, page.cursor(), genre, viewer)
+                        : Mono.empty())
+                .flatMapIterable(SearchResponse::content, STREAM_PREFETCH_PAGES);
+    }
+
+    private Mono<SearchResponse<MediaResponse>> nextPage(int batchSize, String cursor, String genre, String viewer) {
+        return Mono.fromCallable(() -> getDiscoveryFeed(0, batchSize, cursor, genre, viewer))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Shared candidate tracks for a genre: a random sample of the local catalog, topped up
+     * from the warm pool when the catalog has fewer matching tracks than a session holds.
+     */
+    private List<MediaResponse> loadCandidates(String genreKey) {
+        String genre = genreKey.isEmpty() ? null : genreKey;
+        double pivot = ThreadLocalRandom.current().nextDouble();
+        List<MediaResponse> sampled = mediaService.samplePreviewTracks(sampleSize, genre, pivot);
+        if (sampled.size() >= sampleSize) {
+            return List.copyOf(sampled);
+        }
+
+        log.debug("Local catalog holds {} feed track(s) for genre {}, topping up from the pool", sampled.size(), genre);
+        Map<String, MediaResponse> candidates = new LinkedHashMap<>();
+        sampled.forEach(track -> candidates.put(track.id(), track));
+        for (MediaResponse track : feedPool.snapshot()) {
+            if (candidates.size() >= sampleSize) {
+                break;
+            }
+            if (genre == null || genre.equalsIgnoreCase(track.genre())) {
+                candidates.putIfAbsent(track.id(), track);
+            }
+        }
+        return List.copyOf(candidates.values());
+    }
+
+    private static String normalizeGenre(String genre) {
+        return genre == null || genre.isBlank() ? ALL_GENRES : genre.strip().toLowerCase(Locale.ROOT);
     }
 
     private SearchResponse<MediaResponse> buildEmptyResponse(int page) {
@@ -131,4 +221,43 @@ public class FeedService {
                 .totalPages(0)
                 .build();
     }
+
+    private record Slice(List<MediaResponse> content, int next) {
+    }
+
+    /**
+     * A fixed candidate list visited in a keyed pseudo-random order. Sessions share the
+     * immutable candidate list and hold only the permutation keys of their own.
+     */
+    private record FeedSession(List<MediaResponse> candidates, FeedPermutation order) {
+
+        static FeedSession of(long seed, List<MediaResponse> candidates) {
+            return new FeedSession(candidates, new FeedPermutation(seed, candidates.size()));
+        }
+
+        /**
+         * Collects up to {@code count} tracks from position {@code from} on, passing over
+         * skipped ones, and returns them with the position following the last one read.
+         */
+        Slice slice(int from, int count, Predicate<MediaResponse> skip) {
+            int n = candidates.size();
+            List<MediaResponse> content = new ArrayList<>(Math.min(count, Math.max(0, n - from)));
+            int i = from;
+            while (i < n && content.size() < count) {
+                MediaResponse track = candidates.get(order.apply(i++));
+                if (!skip.test(track)) {
+                    content.add(track);
+                }
+            }
+            return new Slice(content, Math.max(i, from));
+        }
+
+        boolean isEmpty() {
+            return candidates.isEmpty();
+        }
+
+        int size() {
+            return candidates.size();
+        }
+    }
 }
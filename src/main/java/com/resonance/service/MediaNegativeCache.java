@@ -0,0 +1,110 @@
+package com.resonance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resonance.entities.enums.MediaType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded, time-expiring cache of media IDs known not to resolve.
+ * <p>
+ * Holds IDs that iTunes had no result for, IDs that are not numeric, and IDs that
+ * exist with another type than the one a typed endpoint asked for. Lookups check it
+ * before the repository and the iTunes client. Only genuine answers are recorded:
+ * a lookup that failed or was shed never lands here.
+ */
+@Component
+public class MediaNegativeCache {
+
+    /**
+     * Why an ID does not resolve.
+     */
+    public enum Reason {
+        NOT_FOUND,
+        INVALID_ID,
+        TYPE_MISMATCH
+    }
+
+    private record Entry(Reason reason, MediaType actualType) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final Map<Reason, Counter> shortCircuits = new EnumMap<>(Reason.class);
+
+    public MediaNegativeCache(
+            @Value("${media.negative-cache.max-size:100000}") long maxSize,
+            @Value("${media.negative-cache.ttl:15m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media-negative");
+
+        for (Reason reason : Reason.values()) {
+            shortCircuits.put(reason, Counter.builder("media.negative-cache.short-circuits")
+                    .description("Media lookups answered from the negative cache")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Whether the ID is known not to resolve to media of the requested type.
+     *
+     * @param id        the requested ID
+     * @param requested the requested type, or null for any type
+     * @return true if the lookup can be answered with "not found" right away
+     */
+    public boolean isKnownMissing(String id, MediaType requested) {
+        if (id == null) {
+            return false;
+        }
+        Entry entry = cache.getIfPresent(id);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.reason() == Reason.TYPE_MISMATCH && (requested == null || requested == entry.actualType())) {
+            return false;
+        }
+        shortCircuits.get(entry.reason()).increment();
+        return true;
+    }
+
+    public void recordNotFound(String id) {
+        cache.put(id, new Entry(Reason.NOT_FOUND, null));
+    }
+
+    public void recordInvalid(String id) {
+        cache.put(id, new Entry(Reason.INVALID_ID, null));
+    }
+
+    /**
+     * Records that the ID exists as media of another type.
+     *
+     * @param id         the requested ID
+     * @param actualType the type the ID actually resolves to
+     */
+    public void recordTypeMismatch(String id, MediaType actualType) {
+        cache.put(id, new Entry(Reason.TYPE_MISMATCH, actualType));
+    }
+
+    /**
+     * Forgets IDs that are now known to exist, e.g. after they were synced from a search.
+     */
+    public void invalidate(Collection<String> ids) {
+        cache.invalidateAll(ids);
+    }
+}
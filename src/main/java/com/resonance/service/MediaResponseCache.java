@@ -0,0 +1,122 @@
+package com.resonance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resonance.dto.media.MediaResponse;
+import com.resonance.entities.enums.MediaType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bounded, time-expiring cache of mapped media responses, keyed by media ID.
+ * <p>
+ * Shared by the untyped and typed media lookups, which check it before touching
+ * the database, so a hit is answered without borrowing a connection. Entries are
+ * weighed by their approximate size in memory. Writers invalidate the IDs they
+ * changed once their transaction has completed, so a concurrent reader cannot
+ * repopulate an entry from the row that was just replaced; the TTL bounds what
+ * a reader that lost that race may still serve.
+ */
+@Component
+public class MediaResponseCache {
+
+    /**
+     * Approximate footprint of a response and its entry, excluding string contents.
+     */
+    private static final int ENTRY_OVERHEAD = 200;
+
+    private final Cache<String, MediaResponse> cache;
+
+    public MediaResponseCache(
+            @Value("${media.response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${media.response-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String id, MediaResponse response) -> weigh(response))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media-responses");
+
+        Gauge.builder("media.response-cache.hit-ratio", cache, c -> c.stats().hitRate())
+                .description("Share of media lookups answered from the response cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response for an ID.
+     *
+     * @param id        the media ID
+     * @param requested the requested type, or null for any type
+     * @return the response, or null on a miss or if the ID is cached with another type
+     */
+    public MediaResponse get(String id, MediaType requested) {
+        if (id == null) {
+            return null;
+        }
+        MediaResponse response = cache.getIfPresent(id);
+        if (response == null || (requested != null && response.type() != requested)) {
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Caches a response that reflects committed data.
+     */
+    public MediaResponse put(MediaResponse response) {
+        if (response != null && response.id() != null) {
+            cache.put(response.id(), response);
+        }
+        return response;
+    }
+
+    /**
+     * Forgets the given IDs, once the current transaction completes if one is active.
+     */
+    public void invalidate(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll(ids);
+            return;
+        }
+        List<String> changed = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidateAll(changed);
+            }
+        });
+    }
+
+    private static int weigh(MediaResponse response) {
+        return ENTRY_OVERHEAD
+                + length(response.id())
+                + length(response.title())
+                + length(response.artistName())
+                + length(response.imageUrl())
+                + length(response.releaseDate())
+                + length(response.itunesUrl())
+                + length(response.description())
+                + length(response.genre())
+                + length(response.previewUrl());
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -1,5 +1,6 @@
 package com.resonance.service;
 
+import com.resonance.dto.media.MediaLookupResult;
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.entities.Media;
 import com.resonance.entities.enums.MediaType;
@@ -10,14 +11,26 @@ import com.resonance.external.itunes.ITunesClient;
 import com.resonance.external.itunes.ITunesEntityMapper;
 import com.resonance.external.itunes.ITunesResponse;
 import com.resonance.external.itunes.ITunesResult;
+import com.resonance.external.itunes.ReactiveITunesClient;
 import com.resonance.mapper.MediaMapper;
+import com.resonance.repository.MediaBulkOperations;
+import com.resonance.repository.MediaReadOperations;
 import com.resonance.repository.MediaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +42,10 @@ import java.util.stream.Stream;
 /**
  * Service for managing media entities with caching strategies.
  * This builds the local database organically as users browse and search.
+ * <p>
+ * Lookups that may call iTunes are not transactional: the database read, the upstream
+ * call and the write each run on their own, so no pooled connection is held during
+ * the round trip.
  */
 @Slf4j
 @Service
@@ -39,19 +56,41 @@ public class MediaService {
     private final MediaMapper mediaMapper;
     private final ITunesClient iTunesClient;
     private final ITunesEntityMapper iTunesEntityMapper;
+    private final Optional<ReactiveITunesClient> reactiveITunesClient;
+    private final MediaNegativeCache negativeCache;
+    private final MediaResponseCache responseCache;
+    private final CatalogRefresher catalogRefresher;
+    private final Scheduler blockingScheduler;
+
+    @Value("${media.bulk.max-ids:100}")
+    private int maxBulkIds;
 
     /**
      * Get media by ID with lazy caching (auto-detects type from iTunes).
+     * <p>
+     * Not transactional: a {@link MediaResponseCache} hit never borrows a connection,
+     * and the repository read and the save after an iTunes lookup run in their own
+     * short transactions.
      */
-    @Transactional
     public MediaResponse getMediaById(String id) {
         log.debug("Getting media by ID: {}", id);
 
+        MediaResponse response = responseCache.get(id, null);
+        if (response != null) {
+            catalogRefresher.recordAccess(id);
+            return response;
+        }
+        if (negativeCache.isKnownMissing(id, null)) {
+            log.debug("Media ID known to be missing: {}", id);
+            return null;
+        }
+
         // 1. Check cache first
         Optional<Media> cached = mediaRepository.findById(id);
         if (cached.isPresent()) {
             log.debug("Media found in cache: {}", id);
-            return mapMediaToResponse(cached.get());
+            catalogRefresher.recordAccess(id);
+            return responseCache.put(mapMediaToResponse(cached.get()));
         }
 
         // 2. Fetch from iTunes
@@ -59,21 +98,140 @@ public class MediaService {
         return fetchAndCacheFromItunes(id);
     }
 
+    /**
+     * Get media by ID without holding a thread during the iTunes lookup.
+     * <p>
+     * When {@link ReactiveITunesClient} is present ({@code itunes.client.mode=reactive})
+     * the database steps run on the blocking scheduler and the lookup goes through it;
+     * otherwise this wraps {@link #getMediaById(String)}.
+     *
+     * @param id the iTunes ID
+     * @return the media response, or an empty Mono if not found
+     */
+    public Mono<MediaResponse> getMediaByIdReactive(String id) {
+        if (reactiveITunesClient.isEmpty()) {
+            return Mono.fromSupplier(() -> getMediaById(id));
+        }
+        ReactiveITunesClient client = reactiveITunesClient.get();
+        MediaResponse response = responseCache.get(id, null);
+        if (response != null) {
+            catalogRefresher.recordAccess(id);
+            return Mono.just(response);
+        }
+        if (negativeCache.isKnownMissing(id, null)) {
+            log.debug("Media ID known to be missing: {}", id);
+            return Mono.empty();
+        }
+
+        return Mono.fromCallable(() -> mediaRepository.findById(id).map(media -> {
+                    catalogRefresher.recordAccess(id);
+                    return responseCache.put(mapMediaToResponse(media));
+                }))
+                .subscribeOn(blockingScheduler)
+                .flatMap(cached -> cached.map(Mono::just).orElseGet(() -> {
+                    log.debug("Media not in cache, fetching from iTunes (reactive): {}", id);
+                    return fetchAndCacheFromItunesReactive(client, id);
+                }));
+    }
+
+    /**
+     * Resolve many media IDs in one call.
+     * <p>
+     * Each distinct ID is answered from the response cache, then by one batched
+     * repository read, then by multi-ID iTunes lookups for the remaining misses only,
+     * which are persisted with a single upsert.
+     *
+     * @param ids the requested iTunes IDs, at most {@code media.bulk.max-ids}
+     * @return one result per requested ID, in request order
+     * @throws IllegalArgumentException if no ID or too many IDs are given
+     */
+    public List<MediaLookupResult> getMediaByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one media ID is required");
+        }
+        if (ids.size() > maxBulkIds) {
+            throw new IllegalArgumentException("At most " + maxBulkIds + " media IDs can be resolved at once");
+        }
+
+        List<String> requested = ids.stream().map(String::strip).toList();
+        Map<String, MediaResponse> resolved = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(requested)) {
+            MediaResponse response = responseCache.get(id, null);
+            if (response != null) {
+                catalogRefresher.recordAccess(id);
+                resolved.put(id, response);
+            } else if (!id.isEmpty() && !negativeCache.isKnownMissing(id, null)) {
+                pending.add(id);
+            }
+        }
+
+        // 1. One batched read for the response cache misses
+        if (!pending.isEmpty()) {
+            for (Media media : mediaRepository.findAllById(pending)) {
+                catalogRefresher.recordAccess(media.getId());
+                resolved.put(media.getId(), responseCache.put(mapMediaToResponse(media)));
+            }
+            pending.removeIf(resolved::containsKey);
+        }
+
+        // 2. Batched iTunes lookups for the IDs the catalog does not hold
+        if (!pending.isEmpty()) {
+            log.debug("{} of {} media ID(s) not in cache, fetching from iTunes", pending.size(), requested.size());
+            for (MediaResponse response : fetchAndCacheAllFromItunes(pending)) {
+                resolved.put(response.id(), response);
+            }
+        }
+
+        return requested.stream()
+                .map(id -> MediaLookupResult.of(id, resolved.get(id)))
+                .toList();
+    }
+
+    /**
+     * Resolve many media IDs without holding the caller's thread.
+     * <p>
+     * In reactive mode the lookup runs on the blocking scheduler; otherwise this wraps
+     * {@link #getMediaByIds(List)}.
+     *
+     * @param ids the requested iTunes IDs, at most {@code media.bulk.max-ids}
+     * @return one result per requested ID, in request order
+     */
+    public Mono<List<MediaLookupResult>> getMediaByIdsReactive(List<String> ids) {
+        Mono<List<MediaLookupResult>> lookup = Mono.fromSupplier(() -> getMediaByIds(ids));
+        return reactiveITunesClient.isPresent() ? lookup.subscribeOn(blockingScheduler) : lookup;
+    }
+
     /**
      * Get album by ID. Checks cache first, then fetches from external API if not found.
      *
      * @param id the album ID (iTunes collection ID)
      * @return MediaResponse for the album, or null if not found
      */
-    @Transactional
     public MediaResponse getAlbumById(String id) {
         log.debug("Getting album by ID: {}", id);
 
+        MediaResponse response = responseCache.get(id, MediaType.ALBUM);
+        if (response != null) {
+            catalogRefresher.recordAccess(id);
+            return response;
+        }
+        if (negativeCache.isKnownMissing(id, MediaType.ALBUM)) {
+            log.debug("ID known not to be an album: {}", id);
+            return null;
+        }
+
         // Check cache first
         Optional<Media> cached = mediaRepository.findById(id);
         if (cached.isPresent() && cached.get() instanceof Album album) {
             log.debug("Album found in cache: {}", id);
-            return mediaMapper.albumToResponse(album);
+            catalogRefresher.recordAccess(id);
+            return responseCache.put(mediaMapper.albumToResponse(album));
+        }
+        if (cached.isPresent()) {
+            log.debug("ID {} is cached as another type, not an album", id);
+            negativeCache.recordTypeMismatch(id, typeOf(cached.get()));
+            return null;
         }
 
         log.debug("Album not in cache, fetching from iTunes: {}", id);
@@ -86,15 +244,30 @@ public class MediaService {
      * @param id the artist ID (iTunes artist ID)
      * @return MediaResponse for the artist, or null if not found
      */
-    @Transactional
     public MediaResponse getArtistById(String id) {
         log.debug("Getting artist by ID: {}", id);
 
+        MediaResponse response = responseCache.get(id, MediaType.ARTIST);
+        if (response != null) {
+            catalogRefresher.recordAccess(id);
+            return response;
+        }
+        if (negativeCache.isKnownMissing(id, MediaType.ARTIST)) {
+            log.debug("ID known not to be an artist: {}", id);
+            return null;
+        }
+
         // Check cache first
         Optional<Media> cached = mediaRepository.findById(id);
         if (cached.isPresent() && cached.get() instanceof Artist artist) {
             log.debug("Artist found in cache: {}", id);
-            return mediaMapper.artistToResponse(artist);
+            catalogRefresher.recordAccess(id);
+            return responseCache.put(mediaMapper.artistToResponse(artist));
+        }
+        if (cached.isPresent()) {
+            log.debug("ID {} is cached as another type, not an artist", id);
+            negativeCache.recordTypeMismatch(id, typeOf(cached.get()));
+            return null;
         }
 
         log.debug("Artist not in cache, fetching from iTunes: {}", id);
@@ -107,15 +280,30 @@ public class MediaService {
      * @param id the track ID (iTunes track ID)
      * @return MediaResponse for the track, or null if not found
      */
-    @Transactional
     public MediaResponse getTrackById(String id) {
         log.debug("Getting track by ID: {}", id);
 
+        MediaResponse response = responseCache.get(id, MediaType.TRACK);
+        if (response != null) {
+            catalogRefresher.recordAccess(id);
+            return response;
+        }
+        if (negativeCache.isKnownMissing(id, MediaType.TRACK)) {
+            log.debug("ID known not to be a track: {}", id);
+            return null;
+        }
+
         // Check cache first
         Optional<Media> cached = mediaRepository.findById(id);
         if (cached.isPresent() && cached.get() instanceof Track track) {
             log.debug("Track found in cache: {}", id);
-            return mediaMapper.trackToResponse(track);
+            catalogRefresher.recordAccess(id);
+            return responseCache.put(mediaMapper.trackToResponse(track));
+        }
+        if (cached.isPresent()) {
+            log.debug("ID {} is cached as another type, not a track", id);
+            negativeCache.recordTypeMismatch(id, typeOf(cached.get()));
+            return null;
         }
 
         log.debug("Track not in cache, fetching from iTunes: {}", id);
@@ -124,6 +312,8 @@ public class MediaService {
 
     /**
      * Get or create a media entity. Creates a new entity if not found in cache.
+     * <p>
+     * Never calls iTunes, so unlike the lookups it joins the caller's transaction.
      *
      * @param itunesId   the iTunes ID for the media
      * @param type       the media type (ALBUM, ARTIST, TRACK)
@@ -136,6 +326,8 @@ public class MediaService {
         return mediaRepository.findById(itunesId)
                 .orElseGet(() -> {
                     log.info("Creating new media entry for iTunes ID: {}", itunesId);
+                    negativeCache.invalidate(List.of(itunesId));
+                    responseCache.invalidate(List.of(itunesId));
                     return createAndCacheMedia(itunesId, type, title, artistName);
                 });
     }
@@ -159,7 +351,7 @@ public class MediaService {
      * Sync tracks from iTunes results to local DB (Eager Caching).
      *
      * @param results list of iTunes results to sync
-     * @return list of Media entities (from DB) corresponding to the input results
+     * @return list of Media entities corresponding to the input results, in rank order
      */
     @Transactional
     public List<Media> syncTracks(List<ITunesResult> results) {
@@ -175,7 +367,7 @@ public class MediaService {
      * Sync artists from iTunes results to local DB (Eager Caching).
      *
      * @param results list of iTunes results to sync
-     * @return list of Media entities (from DB) corresponding to the input results
+     * @return list of Media entities corresponding to the input results, in rank order
      */
     @Transactional
     public List<Media> syncArtists(List<ITunesResult> results) {
@@ -188,19 +380,82 @@ public class MediaService {
     }
 
     /**
-     * Convert a list of Media entities to MediaResponse DTOs.
+     * Search the local catalog only, without calling iTunes.
+     * Used when the iTunes search endpoint is unavailable.
      *
-     * @param mediaList list of Media entities
-     * @return list of MediaResponse DTOs
+     * @param query the search term
+     * @param type  the media type to search
+     * @param limit maximum number of results
+     * @return list of MediaResponse DTOs from the local database
      */
-    public List<MediaResponse> toMediaResponses(List<Media> mediaList) {
-        if (mediaList == null || mediaList.isEmpty()) {
-            return List.of();
+    public List<MediaResponse> searchLocal(String query, MediaType type, int limit) {
+        return mediaRepository.searchResponses(type, query.strip(), limit);
+    }
+
+    /**
+     * Fills in the stored ratings of responses mapped from iTunes, with one batched read.
+     * Media that is not stored yet gets no average and a rating count of 0, as a freshly
+     * inserted row would. If the read fails, the responses are returned that way too,
+     * so a search never fails on the ratings alone.
+     *
+     * @param type      the media type of the responses
+     * @param responses responses with distinct IDs
+     * @return the responses in the same order
+     */
+    public List<MediaResponse> withRatings(MediaType type, List<MediaResponse> responses) {
+        if (responses.isEmpty()) {
+            return responses;
         }
-        return mediaList.stream()
-                .map(this::mapMediaToResponse)
-                .filter(Objects::nonNull)
-                .toList();
+
+        Map<String, MediaReadOperations.StoredRating> ratings;
+        try {
+            ratings = mediaRepository.findRatings(type, responses.stream().map(MediaResponse::id).toList());
+        } catch (DataAccessException e) {
+            log.warn("Could not read stored ratings for {} search result(s): {}", responses.size(), e.getMessage());
+            ratings = Map.of();
+        }
+
+        List<MediaResponse> rated = new ArrayList<>(responses.size());
+        for (MediaResponse response : responses) {
+            MediaReadOperations.StoredRating rating = ratings.get(response.id());
+            rated.add(response.toBuilder()
+                    .averageRating(rating != null ? rating.averageRating() : null)
+                    .ratingCount(rating != null ? rating.ratingCount() : 0)
+                    .build());
+        }
+        return rated;
+    }
+
+    /**
+     * Randomly sample preview-capable tracks from the local catalog.
+     * <p>
+     * Reads the run of rows following {@code pivot} in precomputed random-key order,
+     * wrapping around to the start of the order when the run is too short.
+     *
+     * @param limit maximum number of tracks
+     * @param genre lower-case genre to restrict to, or null for all genres
+     * @param pivot start of the run, uniform in [0, 1)
+     * @return track MediaResponse DTOs with previewUrl, without duplicates
+     */
+    public List<MediaResponse> samplePreviewTracks(int limit, String genre, double pivot) {
+        List<MediaResponse> tracks = new ArrayList<>(mediaRepository.samplePreviewTrackResponses(genre, pivot, limit));
+        if (tracks.size() < limit && pivot > 0) {
+            Set<String> seen = tracks.stream().map(MediaResponse::id).collect(Collectors.toSet());
+            mediaRepository.samplePreviewTrackResponses(genre, 0, limit - tracks.size()).stream()
+                    .filter(track -> seen.add(track.id()))
+                    .forEach(tracks::add);
+        }
+        return tracks;
+    }
+
+    /**
+     * Count preview-capable tracks in the local catalog.
+     *
+     * @return number of tracks with a preview URL
+     */
+    @Transactional(readOnly = true)
+    public long countPreviewTracks() {
+        return mediaRepository.countByTypeAndPreviewUrlIsNotNull(MediaType.TRACK);
     }
 
     private List<Media> syncMedia(
@@ -213,45 +468,50 @@ public class MediaService {
             return List.of();
         }
 
-        // 1. Filter by type and valid ID
-        List<ITunesResult> validResults = results.stream()
+        return upsertInRankOrder(results.stream()
                 .filter(typeFilter)
                 .filter(r -> idExtractor.apply(r) != null)
-                .toList();
+                .map(entityMapper));
+    }
 
-        if (validResults.isEmpty()) {
+    /**
+     * Writes entities with one set-based upsert and returns them in input order.
+     * Of duplicate IDs only the first, best-ranked entity is kept.
+     */
+    private List<Media> upsertInRankOrder(Stream<? extends Media> mapped) {
+        // 1. Keep the first of duplicate IDs in rank order
+        Map<String, Media> entities = new LinkedHashMap<>();
+        mapped.filter(Objects::nonNull)
+                .forEach(entity -> entities.putIfAbsent(entity.getId(), entity));
+
+        if (entities.isEmpty()) {
             return List.of();
         }
 
-        // 2. Extract IDs
-        List<String> ids = validResults.stream()
-                .map(r -> String.valueOf(idExtractor.apply(r)))
-                .toList();
-
-        // 3. Batch fetch existing entities
-        List<Media> existingEntities = mediaRepository.findAllByIdIn(ids);
-        Set<String> existingIds = existingEntities.stream()
-                .map(Media::getId)
-                .collect(Collectors.toSet());
-
-        log.debug("Eager caching: {} results, {} already in DB", validResults.size(), existingIds.size());
-
-        // 4. Filter new results and map to entities
-        List<Media> newEntities = validResults.stream()
-                .filter(r -> !existingIds.contains(String.valueOf(idExtractor.apply(r))))
-                .map(entityMapper)
-                .filter(Objects::nonNull)
-                .map(entity -> (Media) entity)
-                .toList();
-
-        // 5. Batch save new entities
-        if (!newEntities.isEmpty()) {
-            List<Media> savedEntities = mediaRepository.saveAll(newEntities);
-            log.info("Eagerly cached {} new media entities", savedEntities.size());
+        // 2. One set-based upsert, which also reports the rows that already existed
+        Map<String, MediaBulkOperations.StoredMedia> stored = mediaRepository.upsertAll(List.copyOf(entities.values()));
+        responseCache.invalidate(entities.keySet());
+        int inserted = entities.size() - stored.size();
+        log.debug("Eager caching: {} results, {} already in DB", entities.size(), stored.size());
+        if (inserted > 0) {
+            log.info("Eagerly cached {} new media entities", inserted);
+            negativeCache.invalidate(entities.keySet().stream().filter(id -> !stored.containsKey(id)).toList());
         }
 
-        // 6. Return all entities (re-fetch to ensure consistent state)
-        return mediaRepository.findAllByIdIn(ids);
+        // 3. Assemble in rank order from memory, carrying over ratings of existing rows
+        List<Media> synced = new ArrayList<>(entities.size());
+        for (Media entity : entities.values()) {
+            MediaBulkOperations.StoredMedia existing = stored.get(entity.getId());
+            if (existing == null) {
+                synced.add(entity);
+            } else if (existing.type() == typeOf(entity)) {
+                synced.add(entity.toBuilder()
+                        .averageRating(existing.averageRating())
+                        .ratingCount(existing.ratingCount())
+                        .build());
+            }
+        }
+        return synced;
     }
 
     /**
@@ -265,26 +525,105 @@ public class MediaService {
 
             if (response.results() == null || response.results().isEmpty()) {
                 log.debug("No results from iTunes for ID: {}", id);
+                if (!response.isUnavailable()) {
+                    negativeCache.recordNotFound(id);
+                }
                 return null;
             }
 
-            ITunesResult result = response.results().getFirst();
-            Media media = mapResultToEntity(result);
+            return cacheLookupResult(id, response.results().getFirst());
 
-            if (media == null) {
-                log.warn("Could not map iTunes result to entity for ID: {}", id);
-                return null;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid iTunes ID format: {}", id);
+            negativeCache.recordInvalid(id);
+            return null;
+        }
+    }
+
+    /**
+     * Fetches several media from iTunes in as few lookups as possible and caches them
+     * with one upsert. IDs iTunes has no result for are recorded as missing, unless
+     * the lookup failed.
+     */
+    private List<MediaResponse> fetchAndCacheAllFromItunes(List<String> ids) {
+        List<Long> itunesIds = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            try {
+                itunesIds.add(Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid iTunes ID format: {}", id);
+                negativeCache.recordInvalid(id);
             }
+        }
+        if (itunesIds.isEmpty()) {
+            return List.of();
+        }
 
-            media = mediaRepository.save(media);
-            log.info("Cached new media from iTunes: {} (type: {})", id, media.getType());
+        ITunesResponse response = iTunesClient.lookupByIds(itunesIds);
+        if (response.isUnavailable()) {
+            log.debug("iTunes lookup unavailable for {} ID(s)", itunesIds.size());
+            return List.of();
+        }
 
-            return mapMediaToResponse(media);
+        Set<String> requested = Set.copyOf(ids);
+        List<Media> found = (response.results() != null ? response.results() : List.<ITunesResult>of()).stream()
+                .map(iTunesEntityMapper::toEntity)
+                .filter(media -> media != null && requested.contains(media.getId()))
+                .toList();
+        Set<String> foundIds = found.stream().map(Media::getId).collect(Collectors.toSet());
+        itunesIds.stream()
+                .map(String::valueOf)
+                .filter(id -> !foundIds.contains(id))
+                .forEach(negativeCache::recordNotFound);
+
+        return upsertInRankOrder(found.stream()).stream()
+                .map(media -> responseCache.put(mapMediaToResponse(media)))
+                .toList();
+    }
 
+    /**
+     * Non-blocking variant of {@link #fetchAndCacheFromItunes(String)}.
+     */
+    private Mono<MediaResponse> fetchAndCacheFromItunesReactive(ReactiveITunesClient client, String id) {
+        long itunesId;
+        try {
+            itunesId = Long.parseLong(id);
         } catch (NumberFormatException e) {
             log.warn("Invalid iTunes ID format: {}", id);
+            negativeCache.recordInvalid(id);
+            return Mono.empty();
+        }
+
+        return client.lookupById(itunesId)
+                .publishOn(blockingScheduler)
+                .mapNotNull(response -> {
+                    if (response.results() == null || response.results().isEmpty()) {
+                        log.debug("No results from iTunes for ID: {}", id);
+                        if (!response.isUnavailable()) {
+                            negativeCache.recordNotFound(id);
+                        }
+                        return null;
+                    }
+                    return cacheLookupResult(id, response.results().getFirst());
+                });
+    }
+
+    /**
+     * Persists a looked-up iTunes result, whatever its type, and maps it to a DTO.
+     */
+    private MediaResponse cacheLookupResult(String id, ITunesResult result) {
+        Media media = mapResultToEntity(result);
+
+        if (media == null) {
+            log.warn("Could not map iTunes result to entity for ID: {}", id);
+            negativeCache.recordNotFound(id);
             return null;
         }
+
+        media = mediaRepository.save(media);
+        log.info("Cached new media from iTunes: {} (type: {})", id, media.getType());
+
+        return responseCache.put(mapMediaToResponse(media));
     }
 
     /**
@@ -297,27 +636,33 @@ public class MediaService {
 
             if (response.results() == null || response.results().isEmpty()) {
                 log.debug("No album found in iTunes for ID: {}", id);
+                if (!response.isUnavailable()) {
+                    negativeCache.recordNotFound(id);
+                }
                 return null;
             }
 
             ITunesResult result = response.results().getFirst();
             if (!"collection".equals(result.wrapperType())) {
                 log.debug("iTunes result for ID {} is not an album (type: {})", id, result.wrapperType());
+                recordWrongType(id, result);
                 return null;
             }
 
             Album album = iTunesEntityMapper.toAlbumEntity(result);
             if (album == null) {
+                negativeCache.recordNotFound(id);
                 return null;
             }
 
             album = mediaRepository.save(album);
             log.info("Cached new album from iTunes: {}", id);
 
-            return mediaMapper.albumToResponse(album);
+            return responseCache.put(mediaMapper.albumToResponse(album));
 
         } catch (NumberFormatException e) {
             log.warn("Invalid iTunes ID format: {}", id);
+            negativeCache.recordInvalid(id);
             return null;
         }
     }
@@ -332,27 +677,33 @@ public class MediaService {
 
             if (response.results() == null || response.results().isEmpty()) {
                 log.debug("No artist found in iTunes for ID: {}", id);
+                if (!response.isUnavailable()) {
+                    negativeCache.recordNotFound(id);
+                }
                 return null;
             }
 
             ITunesResult result = response.results().getFirst();
             if (!"artist".equals(result.wrapperType())) {
                 log.debug("iTunes result for ID {} is not an artist (type: {})", id, result.wrapperType());
+                recordWrongType(id, result);
                 return null;
             }
 
             Artist artist = iTunesEntityMapper.toArtistEntity(result);
             if (artist == null) {
+                negativeCache.recordNotFound(id);
                 return null;
             }
 
             artist = mediaRepository.save(artist);
             log.info("Cached new artist from iTunes: {}", id);
 
-            return mediaMapper.artistToResponse(artist);
+            return responseCache.put(mediaMapper.artistToResponse(artist));
 
         } catch (NumberFormatException e) {
             log.warn("Invalid iTunes ID format: {}", id);
+            negativeCache.recordInvalid(id);
             return null;
         }
     }
@@ -367,31 +718,65 @@ public class MediaService {
 
             if (response.results() == null || response.results().isEmpty()) {
                 log.debug("No track found in iTunes for ID: {}", id);
+                if (!response.isUnavailable()) {
+                    negativeCache.recordNotFound(id);
+                }
                 return null;
             }
 
             ITunesResult result = response.results().getFirst();
             if (!"track".equals(result.wrapperType())) {
                 log.debug("iTunes result for ID {} is not a track (type: {})", id, result.wrapperType());
+                recordWrongType(id, result);
                 return null;
             }
 
             Track track = iTunesEntityMapper.toTrackEntity(result);
             if (track == null) {
+                negativeCache.recordNotFound(id);
                 return null;
             }
 
             track = mediaRepository.save(track);
             log.info("Cached new track from iTunes: {}", id);
 
-            return mediaMapper.trackToResponse(track);
+            return responseCache.put(mediaMapper.trackToResponse(track));
 
         } catch (NumberFormatException e) {
             log.warn("Invalid iTunes ID format: {}", id);
+            negativeCache.recordInvalid(id);
             return null;
         }
     }
 
+    /**
+     * Records that a typed lookup resolved to another kind of media.
+     */
+    private void recordWrongType(String id, ITunesResult result) {
+        MediaType actualType = result.isCollection() ? MediaType.ALBUM
+                : result.isTrack() ? MediaType.TRACK
+                : result.isArtist() ? MediaType.ARTIST
+                : null;
+        if (actualType != null) {
+            negativeCache.recordTypeMismatch(id, actualType);
+        } else {
+            negativeCache.recordNotFound(id);
+        }
+    }
+
+    /**
+     * Type of a media entity, derived from its class (the discriminator is only
+     * populated once the entity has been read back).
+     */
+    private static MediaType typeOf(Media media) {
+        return switch (media) {
+            case Album _ -> MediaType.ALBUM;
+            case Track _ -> MediaType.TRACK;
+            case Artist _ -> MediaType.ARTIST;
+            default -> media.getType();
+        };
+    }
+
     /**
      * Maps an iTunes result to the appropriate entity type based on wrapperType.
      */
@@ -459,13 +844,18 @@ public class MediaService {
                 .build();
     }
 
+    /**
+     * Sync results of any type from iTunes to local DB (Eager Caching), in a single upsert.
+     *
+     * @param results list of iTunes results to sync
+     * @return list of Media entities corresponding to the input results, in rank order
+     */
+    @Transactional
     public List<Media> syncAll(List<ITunesResult> results) {
-        List<Media> syncedAlbums = syncAlbums(results);
-        List<Media> syncedArtists = syncArtists(results);
-        List<Media> syncedTracks = syncTracks(results);
+        if (results == null || results.isEmpty()) {
+            return List.of();
+        }
 
-        return Stream.of(syncedAlbums, syncedArtists, syncedTracks)
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        return upsertInRankOrder(results.stream().map(iTunesEntityMapper::toEntity));
     }
 }
@@ -0,0 +1,125 @@
+package com.resonance.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter over numeric IDs that forgets old entries by rotating two generations.
+ * <p>
+ * Inserts go to the current generation; once it holds {@code generationSize} IDs it
+ * becomes the previous generation and the old previous one is dropped. Lookups check
+ * both, so the most recent {@code generationSize} to {@code 2 * generationSize} IDs
+ * are remembered in a fixed footprint of two bit arrays. False positives are possible;
+ * false negatives are not, within that window.
+ */
+final class RotatingBloomFilter {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = Byte.BYTES + 3 * Integer.BYTES;
+
+    private final int bits;
+    private final int hashes;
+    private final int generationSize;
+    private long[] current;
+    private long[] previous;
+    private int currentCount;
+
+    RotatingBloomFilter(int bits, int hashes, int generationSize) {
+        if (bits <= 0 || bits % Long.SIZE != 0) {
+            throw new IllegalArgumentException("Bloom filter size must be a positive multiple of 64 bits");
+        }
+        this.bits = bits;
+        this.hashes = hashes;
+        this.generationSize = generationSize;
+        this.current = new long[bits / Long.SIZE];
+        this.previous = new long[bits / Long.SIZE];
+    }
+
+    synchronized boolean mightContain(long id) {
+        return contains(current, id) || contains(previous, id);
+    }
+
+    synchronized void add(long id) {
+        if (contains(current, id)) {
+            return;
+        }
+        if (currentCount >= generationSize) {
+            previous = current;
+            current = new long[bits / Long.SIZE];
+            currentCount = 0;
+        }
+        long h1 = mix(id);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+            current[bit >>> 6] |= 1L << bit;
+        }
+        currentCount++;
+    }
+
+    /**
+     * Heap footprint of the bit arrays.
+     */
+    int sizeInBytes() {
+        return 2 * bits / Byte.SIZE;
+    }
+
+    synchronized byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sizeInBytes())
+                .put(FORMAT_VERSION)
+                .putInt(bits)
+                .putInt(hashes)
+                .putInt(currentCount);
+        for (long word : current) {
+            buffer.putLong(word);
+        }
+        for (long word : previous) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a filter written by {@link #toBytes()}. A payload written with other
+     * parameters cannot be reused and yields an empty filter.
+     */
+    static RotatingBloomFilter fromBytes(byte[] bytes, int bits, int hashes, int generationSize) {
+        RotatingBloomFilter filter = new RotatingBloomFilter(bits, hashes, generationSize);
+        if (bytes == null || bytes.length != HEADER_BYTES + filter.sizeInBytes()) {
+            return filter;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION || buffer.getInt() != bits || buffer.getInt() != hashes) {
+            return filter;
+        }
+        filter.currentCount = buffer.getInt();
+        for (int i = 0; i < filter.current.length; i++) {
+            filter.current[i] = buffer.getLong();
+        }
+        for (int i = 0; i < filter.previous.length; i++) {
+            filter.previous[i] = buffer.getLong();
+        }
+        return filter;
+    }
+
+    private boolean contains(long[] generation, long id) {
+        long h1 = mix(id);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((generation[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads sequential iTunes IDs over the whole bit array.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,251 @@
+package com.resonance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.resonance.dto.media.MediaResponse;
+import com.resonance.dto.media.SearchResponse;
+import com.resonance.entities.enums.MediaType;
+import com.resonance.external.itunes.ITunesPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded in-memory cache of search results with stale-while-revalidate.
+ * <p>
+ * Entries are weighed by their number of results and expire after a hard TTL. Past
+ * the soft TTL an entry is still served immediately, and a single background refresh
+ * replaces it. Loaders are told which quota class they run for: a miss loads at
+ * {@link ITunesPriority#INTERACTIVE}, since a user is waiting, while a refresh loads at
+ * {@link ITunesPriority#BACKGROUND}, so it never spends quota that user-facing calls
+ * need. Empty results are never cached, so a shed or failed upstream call
+ * cannot mask the catalog.
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Normalized identity of a search: NFKC-normalized, case-folded, whitespace-collapsed
+     * query, media type and limit.
+     */
+    public record Key(String query, MediaType type, int limit) {
+
+        public static Key of(String query, MediaType type, int limit) {
+            return new Key(normalize(query), type, limit);
+        }
+
+        public static String normalize(String query) {
+            if (query == null) {
+                return "";
+            }
+            String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC);
+            return WHITESPACE.matcher(normalized.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * An entry as exposed for inspection.
+     */
+    public record EntryView(Key key, int results, long ageSeconds, boolean stale) {
+    }
+
+    private record Entry(SearchResponse<MediaResponse> value, long loadedAt) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final long softTtlNanos;
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter refreshFailures;
+
+    public SearchResultCache(
+            @Value("${search.cache.max-results:50000}") long maxResults,
+            @Value("${search.cache.soft-ttl:10m}") Duration softTtl,
+            @Value("${search.cache.hard-ttl:1h}") Duration hardTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.softTtlNanos = softTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxResults)
+                .weigher((Key _, Entry entry) -> 1 + entry.value().content().size())
+                .expireAfterWrite(hardTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search-results");
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.refreshFailures = Counter.builder("search.cache.refresh.failures")
+                .description("Background search cache refreshes that failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result for the key, loading it on a miss.
+     * A stale entry is returned as-is while the loader refreshes it in the background.
+     *
+     * @param key    the normalized search key
+     * @param loader loads a fresh result at the given priority; returns null when no result
+     *               can be loaded right now
+     * @return the cached or loaded result, or null if the loader returned null on a miss
+     */
+    public SearchResponse<MediaResponse> get(Key key, Function<ITunesPriority, SearchResponse<MediaResponse>> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            if (isStale(entry) && refreshing.add(key)) {
+                refreshExecutor.execute(() -> {
+                    try {
+                        put(key, loader.apply(ITunesPriority.BACKGROUND));
+                    } catch (RuntimeException e) {
+                        refreshFailures.increment();
+                        log.warn("Background refresh of search '{}' failed: {}", key.query(), e.getMessage());
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+            }
+            return served(entry);
+        }
+
+        misses.increment();
+        SearchResponse<MediaResponse> value = loader.apply(ITunesPriority.INTERACTIVE);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Non-blocking variant of {@link #get(Key, Function)}.
+     *
+     * @param key    the normalized search key
+     * @param loader loads a fresh result at the given priority; completes empty when no
+     *               result can be loaded right now
+     * @return the cached or loaded result
+     */
+    public Mono<SearchResponse<MediaResponse>> getReactive(
+            Key key,
+            Function<ITunesPriority, Mono<SearchResponse<MediaResponse>>> loader
+    ) {
+        return Mono.defer(() -> {
+            Entry entry = cache.getIfPresent(key);
+            if (entry != null) {
+                if (isStale(entry) && refreshing.add(key)) {
+                    loader.apply(ITunesPriority.BACKGROUND)
+                            .doFinally(_ -> refreshing.remove(key))
+                            .subscribe(value -> put(key, value), e -> {
+                                refreshFailures.increment();
+                                log.warn("Background refresh of search '{}' failed: {}", key.query(), e.getMessage());
+                            });
+                }
+                return Mono.just(served(entry));
+            }
+
+            misses.increment();
+            return loader.apply(ITunesPriority.INTERACTIVE).doOnNext(value -> put(key, value));
+        });
+    }
+
+    /**
+     * Whether a result is cached for the key, fresh or stale.
+     */
+    public boolean contains(Key key) {
+        return cache.getIfPresent(key) != null;
+    }
+
+    /**
+     * Stores a result loaded outside {@link #get}, e.g. once a streamed search has been
+     * persisted. Empty results are ignored.
+     */
+    public void put(Key key, SearchResponse<MediaResponse> value) {
+        if (value != null && value.content() != null && !value.content().isEmpty()) {
+            cache.put(key, new Entry(value, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Lists cached entries, most recently loaded first.
+     *
+     * @param limit maximum number of entries to return
+     */
+    public List<EntryView> entries(int limit) {
+        long now = System.nanoTime();
+        return cache.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> -e.getValue().loadedAt()))
+                .limit(limit)
+                .map(e -> new EntryView(
+                        e.getKey(),
+                        e.getValue().value().content().size(),
+                        Duration.ofNanos(now - e.getValue().loadedAt()).toSeconds(),
+                        isStale(e.getValue())
+                ))
+                .toList();
+    }
+
+    /**
+     * Evicts the entries whose key matches the predicate.
+     *
+     * @return the number of evicted entries
+     */
+    public int evict(Predicate<Key> predicate) {
+        List<Key> keys = cache.asMap().keySet().stream().filter(predicate).toList();
+        cache.invalidateAll(keys);
+        return keys.size();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Abandons background refreshes still running; stale entries are simply not replaced.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private boolean isStale(Entry entry) {
+        return System.nanoTime() - entry.loadedAt() > softTtlNanos;
+    }
+
+    private SearchResponse<MediaResponse> served(Entry entry) {
+        (isStale(entry) ? staleHits : hits).increment();
+        return entry.value();
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("search.cache.requests")
+                .description("Search cache lookups by outcome: fresh hit, stale hit or miss")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -2,35 +2,74 @@ package com.resonance.service;
 
 import com.resonance.dto.media.MediaResponse;
 import com.resonance.dto.media.SearchResponse;
-import com.resonance.entities.Media;
 import com.resonance.entities.enums.MediaType;
 import com.resonance.external.itunes.ITunesClient;
+import com.resonance.external.itunes.ITunesMediaMapper;
+import com.resonance.external.itunes.ITunesOperation;
+import com.resonance.external.itunes.ITunesPriority;
 import com.resonance.external.itunes.ITunesResponse;
+import com.resonance.external.itunes.ITunesResult;
+import com.resonance.external.itunes.ReactiveITunesClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service for searching music metadata via external APIs.
  * <p>
- * Implements eager caching: all search results are persisted to the local
- * database before being returned, building the catalog as users browse.
+ * Implements eager caching: all search results are handed to {@link CatalogWriteBehind}
+ * and persisted shortly after being returned, building the catalog as users browse.
+ * Responses are mapped straight from the iTunes results and completed with the stored
+ * ratings by one batched read, so the request path never waits for the catalog write.
+ * <p>
+ * While the iTunes search circuit is open, searches are answered from the
+ * local catalog immediately instead of waiting on the upstream.
+ * <p>
+ * Results are kept in {@link SearchResultCache}: repeated queries are answered from
+ * memory, and entries past their soft TTL are refreshed in the background.
+ * <p>
+ * The {@code Mono} variants serve the controllers. When {@link ReactiveITunesClient} is
+ * present ({@code itunes.client.mode=reactive}) they call iTunes through it and run only
+ * the local-catalog fallback on the blocking scheduler; otherwise they wrap the
+ * synchronous methods.
+ * <p>
+ * {@link #streamAll} emits results one by one as iTunes sends them, in either client
+ * mode. The streamed results are queued for persistence and cached once the stream
+ * completes.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public final class SearchService {
 
+    private static final int LOCAL_LIMIT = 20;
+    private static final int STREAM_RATING_BATCH = 20;
+    private static final Duration STREAM_RATING_WAIT = Duration.ofMillis(50);
+
     private final ITunesClient iTunesClient;
+    private final ITunesMediaMapper iTunesMediaMapper;
+    private final Optional<ReactiveITunesClient> reactiveITunesClient;
     private final MediaService mediaService;
+    private final SearchResultCache searchCache;
+    private final CatalogWriteBehind catalogWriter;
+    private final Scheduler blockingScheduler;
 
     /**
      * Search albums by query.
      * <p>
-     * Fetches results from iTunes, eagerly caches them to the database,
-     * and returns the persisted entities as DTOs.
+     * Fetches results from iTunes, queues them for eager caching,
+     * and returns them as DTOs in iTunes rank order.
      *
      * @param query the search term
      * @return paginated search response containing album results
@@ -38,21 +77,14 @@ public final class SearchService {
     public SearchResponse<MediaResponse> searchAlbums(String query) {
         log.debug("Searching albums with query: {}", query);
 
-        // Fetch raw results from iTunes
-        ITunesResponse response = iTunesClient.searchAlbums(query);
-
-        // Sync to DB (eager caching) and convert to DTOs
-        List<Media> syncedMedia = mediaService.syncAlbums(response.results());
-        List<MediaResponse> results = mediaService.toMediaResponses(syncedMedia);
-
-        return buildSearchResponse(results);
+        return cached(query, MediaType.ALBUM, LOCAL_LIMIT);
     }
 
     /**
      * Search artists by query.
      * <p>
-     * Fetches results from iTunes, eagerly caches them to the database,
-     * and returns the persisted entities as DTOs.
+     * Fetches results from iTunes, queues them for eager caching,
+     * and returns them as DTOs in iTunes rank order.
      *
      * @param query the search term
      * @return paginated search response containing artist results
@@ -60,21 +92,14 @@ public final class SearchService {
     public SearchResponse<MediaResponse> searchArtists(String query) {
         log.debug("Searching artists with query: {}", query);
 
-        // Fetch raw results from iTunes
-        ITunesResponse response = iTunesClient.searchArtists(query);
-
-        // Sync to DB (eager caching) and convert to DTOs
-        List<Media> syncedMedia = mediaService.syncArtists(response.results());
-        List<MediaResponse> results = mediaService.toMediaResponses(syncedMedia);
-
-        return buildSearchResponse(results);
+        return cached(query, MediaType.ARTIST, LOCAL_LIMIT);
     }
 
     /**
      * Search tracks by query.
      * <p>
-     * Fetches results from iTunes, eagerly caches them to the database,
-     * and returns the persisted entities as DTOs.
+     * Fetches results from iTunes, queues them for eager caching,
+     * and returns them as DTOs in iTunes rank order.
      *
      * @param query the search term
      * @return paginated search response containing track results
@@ -82,14 +107,79 @@ public final class SearchService {
     public SearchResponse<MediaResponse> searchTracks(String query) {
         log.debug("Searching tracks with query: {}", query);
 
-        // Fetch raw results from iTunes
-        ITunesResponse response = iTunesClient.searchTracks(query);
+        return cached(query, MediaType.TRACK, LOCAL_LIMIT);
+    }
 
-        // Sync to DB (eager caching) and convert to DTOs
-        List<Media> syncedMedia = mediaService.syncTracks(response.results());
-        List<MediaResponse> results = mediaService.toMediaResponses(syncedMedia);
+    /**
+     * Search albums by query without holding a thread during the iTunes call.
+     *
+     * @param query the search term
+     * @return search response containing album results
+     */
+    public Mono<SearchResponse<MediaResponse>> searchAlbumsReactive(String query) {
+        return searchReactive(query, MediaType.ALBUM, LOCAL_LIMIT);
+    }
+
+    /**
+     * Search artists by query without holding a thread during the iTunes call.
+     *
+     * @param query the search term
+     * @return search response containing artist results
+     */
+    public Mono<SearchResponse<MediaResponse>> searchArtistsReactive(String query) {
+        return searchReactive(query, MediaType.ARTIST, LOCAL_LIMIT);
+    }
+
+    /**
+     * Search tracks by query without holding a thread during the iTunes call.
+     *
+     * @param query the search term
+     * @return search response containing track results
+     */
+    public Mono<SearchResponse<MediaResponse>> searchTracksReactive(String query) {
+        return searchReactive(query, MediaType.TRACK, LOCAL_LIMIT);
+    }
 
-        return buildSearchResponse(results);
+    public Mono<SearchResponse<MediaResponse>> searchAllReactive(String q, Integer limit, MediaType type) {
+        return searchReactive(q, type, limit);
+    }
+
+    /**
+     * Search by query and emit each result as soon as it is decoded from the iTunes
+     * response, through {@link ReactiveITunesClient} when present and
+     * {@link ITunesClient} otherwise. Cached queries and an open search circuit are
+     * served from the regular search path instead, item by item.
+     *
+     * @param q     the search term
+     * @param limit maximum number of results
+     * @param type  media type to search
+     * @return the results in iTunes rank order
+     */
+    public Flux<MediaResponse> streamAll(String q, Integer limit, MediaType type) {
+        SearchResultCache.Key key = SearchResultCache.Key.of(q, type, limit);
+        if (searchCache.contains(key) || !iTunesClient.isAvailable(ITunesOperation.SEARCH)) {
+            return searchAllReactive(q, limit, type).flatMapIterable(SearchResponse::content);
+        }
+
+        return Flux.defer(() -> {
+            List<ITunesResult> received = new ArrayList<>();
+            Flux<ITunesResult> upstream = reactiveITunesClient
+                    .map(client -> client.streamSearch(q, type.getValue(), limit))
+                    .orElseGet(() -> iTunesClient.streamSearch(q, type.getValue(), limit));
+            return upstream
+                    .doOnNext(received::add)
+                    .mapNotNull(result -> toResponse(result, type))
+                    // Ratings are read for small batches, so the first results are not held back
+                    .bufferTimeout(STREAM_RATING_BATCH, STREAM_RATING_WAIT)
+                    .concatMap(batch -> Mono.fromCallable(() -> mediaService.withRatings(type, batch))
+                            .subscribeOn(blockingScheduler))
+                    .flatMapIterable(Function.identity())
+                    .concatWith(Mono.<MediaResponse>fromRunnable(() -> persistStreamed(key, received))
+                            .subscribeOn(blockingScheduler))
+                    .switchIfEmpty(Mono.fromSupplier(() -> searchLocal(q, type, limit))
+                            .subscribeOn(blockingScheduler)
+                            .flatMapIterable(SearchResponse::content));
+        });
     }
 
     /**
@@ -107,10 +197,81 @@ public final class SearchService {
     }
 
     public SearchResponse<MediaResponse> searchAll(String q, Integer limit, MediaType type) {
-        var results = iTunesClient.searchAll(q, type.getValue(), limit);
+        return cached(q, type, limit);
+    }
+
+    /**
+     * Serves a search from the result cache, calling iTunes on a miss or refresh at the
+     * priority the cache asks for, and falling back to the local catalog when the search
+     * circuit is open.
+     */
+    private SearchResponse<MediaResponse> cached(String query, MediaType type, int limit) {
+        SearchResponse<MediaResponse> response = searchCache.get(
+                SearchResultCache.Key.of(query, type, limit),
+                priority -> iTunesClient.isAvailable(ITunesOperation.SEARCH)
+                        ? toSearchResponse(iTunesClient.searchAll(query, type.getValue(), limit, priority), type)
+                        : null
+        );
+        return response != null ? response : searchLocal(query, type, limit);
+    }
+
+    /**
+     * Queues results for eager caching and maps the ones of the searched type to DTOs,
+     * in iTunes rank order, with their stored ratings. Reads the database.
+     */
+    private SearchResponse<MediaResponse> toSearchResponse(ITunesResponse response, MediaType type) {
+        List<ITunesResult> results = response.results() != null ? response.results() : List.of();
+        catalogWriter.submit(results);
+
+        Map<String, MediaResponse> unique = new LinkedHashMap<>();
+        for (ITunesResult result : results) {
+            MediaResponse mapped = toResponse(result, type);
+            if (mapped != null && mapped.id() != null) {
+                unique.putIfAbsent(mapped.id(), mapped);
+            }
+        }
+        return buildSearchResponse(mediaService.withRatings(type, List.copyOf(unique.values())));
+    }
+
+    private MediaResponse toResponse(ITunesResult result, MediaType type) {
+        return switch (type) {
+            case ALBUM -> result.isCollection() ? iTunesMediaMapper.toAlbumResponse(result) : null;
+            case ARTIST -> result.isArtist() ? iTunesMediaMapper.toArtistResponse(result) : null;
+            case TRACK -> result.isTrack() ? iTunesMediaMapper.toTrackResponse(result) : null;
+        };
+    }
+
+    /**
+     * Eager caching for streamed searches, once the client has all results.
+     */
+    private void persistStreamed(SearchResultCache.Key key, List<ITunesResult> results) {
+        if (!results.isEmpty()) {
+            searchCache.put(key, toSearchResponse(new ITunesResponse(results.size(), results), key.type()));
+        }
+    }
+
+    private SearchResponse<MediaResponse> searchLocal(String query, MediaType type, int limit) {
+        log.debug("iTunes search unavailable, answering '{}' from local catalog", query);
+        return buildSearchResponse(mediaService.searchLocal(query, type, limit));
+    }
+
+    private Mono<SearchResponse<MediaResponse>> searchReactive(String query, MediaType type, int limit) {
+        if (reactiveITunesClient.isEmpty()) {
+            return Mono.fromSupplier(() -> cached(query, type, limit));
+        }
+
+        ReactiveITunesClient client = reactiveITunesClient.get();
+        Function<ITunesPriority, Mono<SearchResponse<MediaResponse>>> loader = priority -> {
+            if (!client.isAvailable(ITunesOperation.SEARCH)) {
+                return Mono.empty();
+            }
+            return client.searchAll(query, type.getValue(), limit, priority)
+                    .publishOn(blockingScheduler)
+                    .map(response -> toSearchResponse(response, type));
+        };
 
-        List<Media> syncedMedia = mediaService.syncAll(results.results());
-        List<MediaResponse> mediaResponses = mediaService.toMediaResponses(syncedMedia);
-        return buildSearchResponse(mediaResponses);
+        return searchCache.getReactive(SearchResultCache.Key.of(query, type, limit), loader)
+                .switchIfEmpty(Mono.fromSupplier(() -> searchLocal(query, type, limit))
+                        .subscribeOn(blockingScheduler));
     }
 }
@@ -0,0 +1,113 @@
+package com.resonance.external.itunes;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+
+    private CircuitBreaker breaker(Duration openDuration) {
+        return new CircuitBreaker(0.5, 10, 4, openDuration, 2, (_, to) -> transitions.add(to));
+    }
+
+    private static void fail(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquirePermission().onFailure();
+        }
+    }
+
+    private static void succeed(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.tryAcquirePermission().onSuccess();
+        }
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 3);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isEqualTo(1.0);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void opensOnceFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        succeed(breaker, 2);
+        fail(breaker, 2);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(transitions).containsExactly(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void slidingWindowForgetsOldestOutcomes() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 1);
+        succeed(breaker, 10);
+
+        assertThat(breaker.bufferedCalls()).isEqualTo(10);
+        assertThat(breaker.failureRate()).isZero();
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulProbes() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        CircuitBreaker.Permit first = breaker.tryAcquirePermission();
+        CircuitBreaker.Permit second = breaker.tryAcquirePermission();
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        first.onSuccess();
+        second.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.bufferedCalls()).isZero();
+        assertThat(transitions).containsExactly(
+                CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedProbeReopens() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        breaker.tryAcquirePermission().onFailure();
+
+        assertThat(transitions).containsExactly(
+                CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void ignoresOutcomesOfPermitsFromAnEarlierState() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        CircuitBreaker.Permit slow = breaker.tryAcquirePermission();
+        fail(breaker, 4);
+
+        CircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        slow.onSuccess();
+        slow.onFailure();
+        probe.onSuccess();
+        probe.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(transitions).containsExactly(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN);
+    }
+}
@@ -0,0 +1,88 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ITunesRequestGovernorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * A bucket of four tokens that practically never refills during a test.
+     */
+    private ITunesRequestGovernor governor(Duration interactiveMaxWait, int maxQueue) {
+        return new ITunesRequestGovernor(
+                1, 4, maxQueue, 0.25, 0.5,
+                interactiveMaxWait, Duration.ZERO, Duration.ZERO,
+                "live", meterRegistry
+        );
+    }
+
+    @Test
+    void lowerClassesLeaveTheirReserve() {
+        ITunesRequestGovernor governor = governor(Duration.ZERO, 10);
+
+        assertThat(governor.acquire(ITunesPriority.BACKGROUND)).isTrue();
+        assertThat(governor.acquire(ITunesPriority.BACKGROUND)).isTrue();
+        assertThat(governor.acquire(ITunesPriority.BACKGROUND)).isFalse();
+
+        assertThat(governor.acquire(ITunesPriority.FEED)).isTrue();
+        assertThat(governor.acquire(ITunesPriority.FEED)).isFalse();
+
+        assertThat(governor.acquire(ITunesPriority.INTERACTIVE)).isTrue();
+        assertThat(governor.acquire(ITunesPriority.INTERACTIVE)).isFalse();
+    }
+
+    @Test
+    void interactiveIsShedAfterItsMaximumWait() {
+        ITunesRequestGovernor governor = governor(Duration.ofMillis(50), 10);
+        for (int i = 0; i < 4; i++) {
+            assertThat(governor.tryAcquire(ITunesPriority.INTERACTIVE)).isTrue();
+        }
+
+        long start = System.nanoTime();
+        assertThat(governor.acquire(ITunesPriority.INTERACTIVE)).isFalse();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(meterRegistry.get("itunes.governor.shed").tag("priority", "interactive").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shedsImmediatelyWhenTheQueueIsFull() {
+        ITunesRequestGovernor governor = governor(Duration.ofSeconds(10), 0);
+        for (int i = 0; i < 4; i++) {
+            assertThat(governor.tryAcquire(ITunesPriority.INTERACTIVE)).isTrue();
+        }
+
+        long start = System.nanoTime();
+        assertThat(governor.acquire(ITunesPriority.INTERACTIVE)).isFalse();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void replayModeGrantsEveryToken() {
+        ITunesRequestGovernor governor = new ITunesRequestGovernor(
+                1, 4, 10, 0.25, 0.5,
+                Duration.ZERO, Duration.ZERO, Duration.ZERO,
+                "replay", meterRegistry
+        );
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(governor.acquire(ITunesPriority.BACKGROUND)).isTrue();
+        }
+    }
+
+    @Test
+    void asyncAcquireGrantsAvailableTokenImmediately() {
+        ITunesRequestGovernor governor = governor(Duration.ZERO, 10);
+
+        assertThat(governor.acquireAsync(ITunesPriority.INTERACTIVE)).isCompletedWithValue(true);
+        assertThat(governor.availableTokens()).isLessThan(4);
+    }
+}
@@ -0,0 +1,141 @@
+package com.resonance.external.itunes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LookupBatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+    private LookupBatcher batcher;
+
+    private LookupBatcher batcher(Duration window, int maxBatchSize, Function<List<Long>, ITunesResponse> answer) {
+        batcher = new LookupBatcher(ids -> {
+            batches.add(List.copyOf(ids));
+            return answer.apply(ids);
+        }, window, maxBatchSize, meterRegistry);
+        return batcher;
+    }
+
+    /**
+     * Answers every requested ID except those above 900, which iTunes does not know.
+     */
+    private static ITunesResponse found(List<Long> ids) {
+        List<ITunesResult> results = ids.stream().filter(id -> id <= 900).map(LookupBatcherTest::track).toList();
+        return new ITunesResponse(results.size(), results);
+    }
+
+    private static ITunesResult track(long id) {
+        return new ITunesResult("track", null, null, id, null, "Artist", "Track " + id,
+                null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static ITunesResult await(CompletableFuture<ITunesResult> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    @Test
+    void flushesOnceTheBatchIsFull() throws Exception {
+        LookupBatcher batcher = batcher(Duration.ofMinutes(1), 3, LookupBatcherTest::found);
+
+        CompletableFuture<ITunesResult> first = batcher.submit(1L);
+        CompletableFuture<ITunesResult> second = batcher.submit(2L);
+        CompletableFuture<ITunesResult> third = batcher.submit(3L);
+
+        assertThat(await(first).trackId()).isEqualTo(1L);
+        assertThat(await(second).trackId()).isEqualTo(2L);
+        assertThat(await(third).trackId()).isEqualTo(3L);
+        assertThat(batches).containsExactly(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void flushesWhenTheWindowElapses() throws Exception {
+        LookupBatcher batcher = batcher(Duration.ofMillis(20), 100, LookupBatcherTest::found);
+
+        CompletableFuture<ITunesResult> first = batcher.submit(11L);
+        CompletableFuture<ITunesResult> missing = batcher.submit(999L);
+
+        assertThat(await(first).trackId()).isEqualTo(11L);
+        assertThat(await(missing)).isNull();
+        assertThat(batches).containsExactly(List.of(11L, 999L));
+        assertThat(meterRegistry.get("itunes.lookup.batch.size").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sharesOneResultAcrossWaitersOfTheSameId() throws Exception {
+        LookupBatcher batcher = batcher(Duration.ofMinutes(1), 2, LookupBatcherTest::found);
+
+        CompletableFuture<ITunesResult> first = batcher.submit(21L);
+        CompletableFuture<ITunesResult> joined = batcher.submit(21L);
+        batcher.submit(22L);
+
+        assertThat(joined).isSameAs(first);
+        assertThat(await(joined)).isSameAs(await(first));
+        assertThat(batches).containsExactly(List.of(21L, 22L));
+        assertThat(meterRegistry.get("itunes.lookup.deduplicated").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void failsEveryWaiterOfAFailedBatch() {
+        LookupBatcher batcher = batcher(Duration.ofMinutes(1), 2, _ -> ITunesResponse.unavailable());
+
+        CompletableFuture<ITunesResult> first = batcher.submit(31L);
+        CompletableFuture<ITunesResult> joined = batcher.submit(31L);
+        CompletableFuture<ITunesResult> second = batcher.submit(32L);
+
+        for (CompletableFuture<ITunesResult> future : List.of(first, joined, second)) {
+            assertThatThrownBy(() -> await(future))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void failedIdsCanBeRequestedAgain() throws Exception {
+        LookupBatcher batcher = batcher(Duration.ofMillis(20), 100, ids -> {
+            if (batches.size() == 1) {
+                throw new IllegalStateException("connection reset");
+            }
+            return found(ids);
+        });
+
+        CompletableFuture<ITunesResult> failed = batcher.submit(41L);
+        assertThatThrownBy(() -> await(failed)).hasRootCauseMessage("connection reset");
+
+        assertThat(await(batcher.submit(41L)).trackId()).isEqualTo(41L);
+        assertThat(batches).containsExactly(List.of(41L), List.of(41L));
+    }
+
+    @Test
+    void closeFlushesPendingIds() {
+        LookupBatcher batcher = batcher(Duration.ofMinutes(1), 100, LookupBatcherTest::found);
+
+        CompletableFuture<ITunesResult> first = batcher.submit(51L);
+        CompletableFuture<ITunesResult> second = batcher.submit(52L);
+        batcher.close();
+        this.batcher = null;
+
+        assertThat(first).isCompletedWithValueMatching(result -> result.trackId() == 51L);
+        assertThat(second).isCompletedWithValueMatching(result -> result.trackId() == 52L);
+        assertThat(batches).containsExactly(List.of(51L, 52L));
+    }
+}
@@ -0,0 +1,164 @@
+package com.resonance.repository;
+
+import com.resonance.entities.enums.MediaType;
+import com.resonance.entities.media.Album;
+import com.resonance.entities.media.Track;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@SpringBootTest
+@Transactional
+class MediaBulkOperationsTest {
+
+    @Container
+    @ServiceConnection
+    public static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    private static Album album(String id, String title, String imageUrl) {
+        return Album.builder()
+                .id(id)
+                .title(title)
+                .artistName("Artist " + id)
+                .imageUrl(imageUrl)
+                .genre("Jazz")
+                .label("Label")
+                .build();
+    }
+
+    private static Track track(String id, String title) {
+        return Track.builder()
+                .id(id)
+                .title(title)
+                .artistName("Artist " + id)
+                .duration(180_000)
+                .trackNumber(3)
+                .build();
+    }
+
+    private String title(String id) {
+        return jdbcClient.sql("select title from media where id = ?").param(id).query(String.class).single();
+    }
+
+    private Instant cachedAt(String id) {
+        return jdbcClient.sql("select cached_at from media where id = ?").param(id)
+                .query(Timestamp.class).single().toInstant();
+    }
+
+    private long count(String id) {
+        return jdbcClient.sql("select count(*) from media where id = ?").param(id).query(Long.class).single();
+    }
+
+    @Test
+    void upsertInsertsNewRowsAndReportsNoneAsStored() {
+        Map<String, MediaBulkOperations.StoredMedia> stored = mediaRepository.upsertAll(List.of(
+                album("1001", "First", "https://img/1"),
+                track("1002", "Second")
+        ));
+
+        assertThat(stored).isEmpty();
+        assertThat(title("1001")).isEqualTo("First");
+        assertThat(title("1002")).isEqualTo("Second");
+        assertThat(jdbcClient.sql("select rating_count from media where id = '1001'").query(Integer.class).single())
+                .isZero();
+    }
+
+    @Test
+    void upsertRefreshesExistingRowsAndReturnsTheirRatings() {
+        mediaRepository.upsertAll(List.of(album("2001", "Old title", "https://img/old")));
+        jdbcClient.sql("update media set average_rating = 4.5, rating_count = 2 where id = '2001'").update();
+
+        Map<String, MediaBulkOperations.StoredMedia> stored = mediaRepository.upsertAll(List.of(
+                album("2001", "New title", null)
+        ));
+
+        assertThat(stored).containsExactly(Map.entry("2001",
+                new MediaBulkOperations.StoredMedia(MediaType.ALBUM, 4.5, 2)));
+        assertThat(title("2001")).isEqualTo("New title");
+        assertThat(jdbcClient.sql("select image_url from media where id = '2001'").query(String.class).single())
+                .isEqualTo("https://img/old");
+    }
+
+    @Test
+    void upsertLeavesRowsOfAnotherTypeAlone() {
+        mediaRepository.upsertAll(List.of(album("3001", "An album", null)));
+
+        Map<String, MediaBulkOperations.StoredMedia> stored = mediaRepository.upsertAll(List.of(track("3001", "A track")));
+
+        assertThat(stored.get("3001").type()).isEqualTo(MediaType.ALBUM);
+        assertThat(title("3001")).isEqualTo("An album");
+    }
+
+    @Test
+    void upsertBumpsTheFetchTimeOfChangedAndUnchangedRows() {
+        mediaRepository.upsertAll(List.of(album("3501", "Same", "https://img/same"), album("3502", "Before", null)));
+        mediaRepository.upsertAll(List.of(track("3503", "A track")));
+        Instant stale = Instant.parse("2020-01-01T00:00:00Z");
+        jdbcClient.sql("update media set cached_at = ? where id in ('3501', '3502', '3503')")
+                .param(Timestamp.from(stale))
+                .update();
+
+        mediaRepository.upsertAll(List.of(
+                album("3501", "Same", "https://img/same"),
+                album("3502", "After", null),
+                album("3503", "Wrong type", null)
+        ));
+
+        assertThat(cachedAt("3501")).isAfter(stale);
+        assertThat(cachedAt("3502")).isAfter(stale);
+        assertThat(title("3502")).isEqualTo("After");
+        assertThat(cachedAt("3503")).isEqualTo(stale);
+        assertThat(title("3503")).isEqualTo("A track");
+    }
+
+    @Test
+    void refreshUpdatesOnlyExistingRowsOfTheSameType() {
+        mediaRepository.upsertAll(List.of(album("4001", "Stale", null), album("4002", "Other", null)));
+        Instant fetchedAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+
+        int updated = mediaRepository.refreshAll(List.of(
+                album("4001", "Fresh", "https://img/fresh"),
+                track("4002", "Wrong type"),
+                album("4003", "Absent", null)
+        ), fetchedAt);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(title("4001")).isEqualTo("Fresh");
+        assertThat(cachedAt("4001")).isEqualTo(fetchedAt);
+        assertThat(title("4002")).isEqualTo("Other");
+        assertThat(count("4003")).isZero();
+    }
+
+    @Test
+    void touchOnlyBumpsTheFetchTime() {
+        mediaRepository.upsertAll(List.of(track("5001", "Unchanged")));
+        Instant fetchedAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+
+        int updated = mediaRepository.touchAll(List.of("5001", "5999"), fetchedAt);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(cachedAt("5001")).isEqualTo(fetchedAt);
+        assertThat(title("5001")).isEqualTo("Unchanged");
+    }
+}
@@ -0,0 +1,43 @@
+package com.resonance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        FeedCursor cursor = new FeedCursor(-8_123_456_789L, 42);
+
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new FeedCursor(Long.MIN_VALUE, Integer.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> FeedCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FeedCursor.decode(Base64.getUrlEncoder().encodeToString(new byte[5])))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNegativePositions() {
+        assertThatThrownBy(() -> new FeedCursor(1, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        byte[] negative = java.nio.ByteBuffer.allocate(12).putLong(1).putInt(-5).array();
+        assertThatThrownBy(() -> FeedCursor.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(negative)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
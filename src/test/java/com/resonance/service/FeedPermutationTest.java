@@ -0,0 +1,62 @@
+package com.resonance.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedPermutationTest {
+
+    private static int[] order(long seed, int size) {
+        FeedPermutation permutation = new FeedPermutation(seed, size);
+        return IntStream.range(0, size).map(permutation::apply).toArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 64, 257, 500, 1000})
+    void visitsEveryIndexExactlyOnce(int size) {
+        int[] order = order(12345L, size);
+
+        Set<Integer> seen = new HashSet<>();
+        for (int index : order) {
+            assertThat(index).isBetween(0, size - 1);
+            seen.add(index);
+        }
+        assertThat(seen).hasSize(size);
+    }
+
+    @Test
+    void sameSeedGivesSameOrder() {
+        assertThat(order(99L, 500)).isEqualTo(order(99L, 500));
+    }
+
+    @Test
+    void differentSeedsGiveDifferentOrders() {
+        assertThat(order(1L, 500)).isNotEqualTo(order(2L, 500));
+    }
+
+    @Test
+    void orderIsNotAnArithmeticProgression() {
+        int[] order = order(7L, 500);
+
+        Set<Integer> steps = new HashSet<>();
+        for (int i = 1; i < order.length; i++) {
+            steps.add(Math.floorMod(order[i] - order[i - 1], order.length));
+        }
+        assertThat(steps.size()).isGreaterThan(100);
+    }
+
+    @Test
+    void rejectsIndexesOutsideTheDomain() {
+        FeedPermutation permutation = new FeedPermutation(1L, 10);
+
+        assertThatThrownBy(() -> permutation.apply(10)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> permutation.apply(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
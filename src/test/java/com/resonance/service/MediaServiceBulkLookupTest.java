@@ -0,0 +1,130 @@
+package com.resonance.service;
+
+import com.resonance.dto.media.MediaLookupResult;
+import com.resonance.entities.media.Album;
+import com.resonance.external.itunes.ITunesClient;
+import com.resonance.external.itunes.ITunesPriority;
+import com.resonance.external.itunes.ITunesResponse;
+import com.resonance.external.itunes.ITunesResult;
+import com.resonance.repository.MediaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Testcontainers
+@SpringBootTest
+@Transactional
+class MediaServiceBulkLookupTest {
+
+    @Container
+    @ServiceConnection
+    public static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer("postgres:16-alpine");
+
+    @MockitoBean
+    private ITunesClient iTunesClient;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Value("${media.bulk.max-ids}")
+    private int maxIds;
+
+    private static ITunesResult albumResult(long id, String title) {
+        return new ITunesResult("collection", id, 1L, null, title, "Artist " + id,
+                null, null, null, null, null, null, null, "Jazz", null, null, null, null);
+    }
+
+    private static List<String> ids(List<MediaLookupResult> results) {
+        return results.stream().map(MediaLookupResult::id).toList();
+    }
+
+    private static List<Boolean> found(List<MediaLookupResult> results) {
+        return results.stream().map(MediaLookupResult::found).toList();
+    }
+
+    @BeforeEach
+    void stubBackgroundRefresh() {
+        when(iTunesClient.lookupByIds(anyCollection(), any(ITunesPriority.class)))
+                .thenReturn(ITunesResponse.unavailable());
+    }
+
+    @Test
+    void resolvesInRequestOrderWithMarkersForMissingIds() {
+        mediaRepository.upsertAll(List.of(Album.builder().id("71001").title("Stored").artistName("Artist").build()));
+        when(iTunesClient.lookupByIds(anyCollection())).thenReturn(
+                new ITunesResponse(1, List.of(albumResult(71002L, "Fetched"))));
+
+        List<MediaLookupResult> results = mediaService.getMediaByIds(
+                List.of("71002", "71001", "not-a-number", "71002", " ", "71999"));
+
+        assertThat(ids(results)).containsExactly("71002", "71001", "not-a-number", "71002", "", "71999");
+        assertThat(found(results)).containsExactly(true, true, false, true, false, false);
+        assertThat(results.get(0).media().title()).isEqualTo("Fetched");
+        assertThat(results.get(1).media().title()).isEqualTo("Stored");
+        assertThat(results.get(3)).isEqualTo(results.get(0));
+        assertThat(results.get(2).media()).isNull();
+    }
+
+    @Test
+    void sendsOnlyUnresolvedValidIdsToItunes() {
+        mediaRepository.upsertAll(List.of(Album.builder().id("72001").title("Stored").artistName("Artist").build()));
+        when(iTunesClient.lookupByIds(anyCollection())).thenReturn(
+                new ITunesResponse(1, List.of(albumResult(72002L, "Fetched"))));
+
+        mediaService.getMediaByIds(List.of("72001", "72002", "72002", "bad", "", "72999"));
+
+        verify(iTunesClient).lookupByIds(List.of(72002L, 72999L));
+
+        clearInvocations(iTunesClient);
+        List<MediaLookupResult> again = mediaService.getMediaByIds(List.of("72001", "72002", "72999"));
+
+        assertThat(found(again)).containsExactly(true, true, false);
+        verify(iTunesClient, never()).lookupByIds(anyCollection());
+    }
+
+    @Test
+    void skipsItunesWhenEveryIdIsStored() {
+        mediaRepository.upsertAll(List.of(
+                Album.builder().id("73001").title("One").artistName("Artist").build(),
+                Album.builder().id("73002").title("Two").artistName("Artist").build()
+        ));
+
+        List<MediaLookupResult> results = mediaService.getMediaByIds(List.of("73002", "73001"));
+
+        assertThat(ids(results)).containsExactly("73002", "73001");
+        assertThat(found(results)).containsExactly(true, true);
+        verify(iTunesClient, never()).lookupByIds(anyCollection());
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedRequests() {
+        assertThatThrownBy(() -> mediaService.getMediaByIds(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> mediaService.getMediaByIds(Collections.nCopies(maxIds + 1, "74001")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(iTunesClient, never()).lookupByIds(anyCollection());
+    }
+}
@@ -0,0 +1,67 @@
+package com.resonance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RotatingBloomFilterTest {
+
+    @Test
+    void remembersEveryIdOfTheLastTwoGenerations() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(8192, 4, 500);
+        LongStream.range(1_000_000, 1_001_000).forEach(filter::add);
+
+        assertThat(LongStream.range(1_000_000, 1_001_000).allMatch(filter::mightContain)).isTrue();
+    }
+
+    @Test
+    void falsePositivesStayRare() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(8192, 4, 500);
+        LongStream.range(1_000_000, 1_001_000).forEach(filter::add);
+
+        long falsePositives = LongStream.range(2_000_000, 2_010_000).filter(filter::mightContain).count();
+
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void forgetsIdsOnceTwoNewerGenerationsFilledUp() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(8192, 3, 10);
+        LongStream.rangeClosed(1, 10).forEach(filter::add);
+        LongStream.rangeClosed(11, 21).forEach(filter::add);
+
+        assertThat(LongStream.rangeClosed(1, 10).noneMatch(filter::mightContain)).isTrue();
+        assertThat(LongStream.rangeClosed(11, 21).allMatch(filter::mightContain)).isTrue();
+    }
+
+    @Test
+    void survivesSerialization() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1024, 3, 50);
+        LongStream.rangeClosed(1, 80).forEach(filter::add);
+
+        RotatingBloomFilter restored = RotatingBloomFilter.fromBytes(filter.toBytes(), 1024, 3, 50);
+
+        assertThat(LongStream.rangeClosed(1, 80).allMatch(restored::mightContain)).isTrue();
+        assertThat(restored.toBytes()).isEqualTo(filter.toBytes());
+    }
+
+    @Test
+    void payloadWithOtherParametersYieldsAnEmptyFilter() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1024, 3, 50);
+        LongStream.rangeClosed(1, 20).forEach(filter::add);
+
+        RotatingBloomFilter restored = RotatingBloomFilter.fromBytes(filter.toBytes(), 1024, 4, 50);
+
+        assertThat(LongStream.rangeClosed(1, 20).noneMatch(restored::mightContain)).isTrue();
+        assertThat(RotatingBloomFilter.fromBytes(null, 1024, 3, 50).mightContain(1)).isFalse();
+    }
+
+    @Test
+    void rejectsSizeThatIsNotAMultipleOf64() {
+        assertThatThrownBy(() -> new RotatingBloomFilter(100, 3, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}